@@ -0,0 +1,58 @@
+package study.querydsl.benchmark;
+
+import java.time.Duration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.repository.MemberColumnarSnapshot;
+import study.querydsl.repository.MemberSearchProjection;
+import study.querydsl.repository.UsernameBloomFilter;
+import study.querydsl.repository.UsernameNgramIndex;
+import study.querydsl.service.MemberDataGenerator;
+
+// 벤치마크용 스프링 컨텍스트: 인메모리 H2 에 지정한 건수만큼 시드 데이터를 넣고 띄운다.
+// SQL 로그, 결과 캐시는 측정에 섞이지 않도록 끈다.
+public final class BenchmarkApplication {
+
+  private BenchmarkApplication() {
+  }
+
+  public static ConfigurableApplicationContext start(long members, int teams, String... extraArgs) {
+    String[] args = {
+        "--spring.profiles.active=bench",
+        "--spring.datasource.url=jdbc:h2:mem:bench" + members + ";DB_CLOSE_DELAY=-1",
+        "--spring.main.banner-mode=off",
+        "--spring.jpa.properties.hibernate.format_sql=false",
+        "--spring.jpa.properties.hibernate.use_sql_comments=false",
+        "--logging.level.org.hibernate.SQL=warn",
+        "--logging.level.org.hibernate.type=warn",
+        "--logging.level.org.hibernate.orm.jdbc.bind=warn",
+        "--decorator.datasource.p6spy.enable-logging=false",
+        "--member.search.cache.enabled=false",
+        "--member.search.count-cache.enabled=false",
+        "--member.seed.members=" + members,
+        "--member.seed.teams=" + teams,
+        "--member.seed.age-distribution=uniform"
+    };
+    String[] allArgs = new String[args.length + extraArgs.length];
+    System.arraycopy(args, 0, allArgs, 0, args.length);
+    System.arraycopy(extraArgs, 0, allArgs, args.length, extraArgs.length);
+
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(allArgs);
+    context.getBean(MemberDataGenerator.class).generate();
+    // 시드 데이터(벌크 insert) 뒤 메모리 인덱스, 읽기 모델 재구축은 백그라운드에서 하므로 끝날 때까지 기다린다
+    try {
+      context.getBean(UsernameNgramIndex.class).awaitRebuild(Duration.ofMinutes(10));
+      context.getBean(MemberSearchProjection.class).awaitRebuild(Duration.ofMinutes(10));
+      context.getBean(UsernameBloomFilter.class).awaitRebuild(Duration.ofMinutes(10));
+      context.getBean(MemberColumnarSnapshot.class).awaitRebuild(Duration.ofMinutes(10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+    return context;
+  }
+}
@@ -0,0 +1,120 @@
+package study.querydsl.benchmark;
+
+import static study.querydsl.entity.QMember.member;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCondition;
+
+// DTO 조회 방식별, 페이징 방식별 처리량 비교 (gc 프로파일러로 할당량도 함께 측정)
+// ./gradlew jmh -Pjmh.includes=MemberQueryBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class MemberQueryBenchmark {
+
+  private static final int ROWS = 1_000;
+
+  @Param({"10000", "100000", "1000000"})
+  public long members;
+
+  ConfigurableApplicationContext context;
+  EntityManager em;
+  JPAQueryFactory queryFactory;
+  MemberRepository memberRepository;
+  MemberSearchCondition condition;
+  PageRequest pageRequest;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start(members, 10);
+    em = context.getBean(EntityManager.class);
+    queryFactory = context.getBean(JPAQueryFactory.class);
+    memberRepository = context.getBean(MemberRepository.class);
+
+    condition = new MemberSearchCondition();
+    condition.setTeamName("teamB");
+    condition.setAgeGoe(20);
+    condition.setAgeLoe(40);
+    pageRequest = PageRequest.of(10, 20);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<MemberDto> projectionBean() {
+    return queryFactory
+        .select(Projections.bean(MemberDto.class, member.username, member.age))
+        .from(member)
+        .limit(ROWS)
+        .fetch();
+  }
+
+  @Benchmark
+  public List<MemberDto> projectionFields() {
+    return queryFactory
+        .select(Projections.fields(MemberDto.class, member.username, member.age))
+        .from(member)
+        .limit(ROWS)
+        .fetch();
+  }
+
+  @Benchmark
+  public List<MemberDto> projectionConstructor() {
+    return queryFactory
+        .select(Projections.constructor(MemberDto.class, member.username, member.age))
+        .from(member)
+        .limit(ROWS)
+        .fetch();
+  }
+
+  @Benchmark
+  public List<MemberDto> queryProjection() {
+    return queryFactory
+        .select(new QMemberDto(member.username, member.age))
+        .from(member)
+        .limit(ROWS)
+        .fetch();
+  }
+
+  @Benchmark
+  public List<MemberDto> jpqlNewDto() {
+    return em.createQuery(
+            "select new study.querydsl.dto.MemberDto(m.username, m.age) from Member m", MemberDto.class)
+        .setMaxResults(ROWS)
+        .getResultList();
+  }
+
+  @Benchmark
+  public Page<MemberTeamDto> searchPageSimple() {
+    return memberRepository.searchPageSimple(condition, pageRequest);
+  }
+
+  @Benchmark
+  public Page<MemberTeamDto> searchPageComplex() {
+    return memberRepository.searchPageComplex(condition, pageRequest);
+  }
+}
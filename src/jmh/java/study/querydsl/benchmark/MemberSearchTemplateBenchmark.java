@@ -0,0 +1,96 @@
+package study.querydsl.benchmark;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.MemberSearchCondition;
+import study.querydsl.repository.MemberSearchTemplates;
+
+// 요청마다 Querydsl 로 쿼리를 만드는 방식 vs 미리 만든 템플릿에 파라미터만 바인딩하는 방식
+// 결과가 몇 건 안 되는 조건으로 재서 DB 시간보다 쿼리 생성 비용이 드러나게 한다. (gc 프로파일러의 gc.alloc.rate.norm 이 요청당 할당량)
+// ./gradlew jmh -Pjmh.includes=MemberSearchTemplateBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MemberSearchTemplateBenchmark {
+
+  // 조건 필드 조합: username / username+teamName+ageGoe+ageLoe
+  @Param({"username", "all"})
+  public String shape;
+
+  ConfigurableApplicationContext context;
+  JPAQueryFactory queryFactory;
+  MemberSearchTemplates templates;
+  MemberSearchCondition condition;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start(10_000, 10);
+    queryFactory = context.getBean(JPAQueryFactory.class);
+    templates = context.getBean(MemberSearchTemplates.class);
+
+    condition = new MemberSearchCondition();
+    condition.setUsername("member42");
+    if ("all".equals(shape)) {
+      condition.setTeamName("teamB");
+      condition.setAgeGoe(0);
+      condition.setAgeLoe(99);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  // DB 없이 쿼리 생성 + JPQL 직렬화만 (템플릿 방식에선 기동 시 한 번)
+  @Benchmark
+  public String querydslBuild() {
+    return querydsl(condition).toString();
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> querydslFetch() {
+    return querydsl(condition).fetch();
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> templateFetch() {
+    return templates.fetch(condition);
+  }
+
+  private JPAQuery<MemberTeamDto> querydsl(MemberSearchCondition condition) {
+    return queryFactory
+        .select(new QMemberTeamDto(
+            member.id,
+            member.username,
+            member.age,
+            team.id,
+            team.name))
+        .from(member)
+        .leftJoin(member.team, team)
+        .where(
+            StringUtils.hasText(condition.getUsername()) ? member.username.eq(condition.getUsername()) : null,
+            StringUtils.hasText(condition.getTeamName()) ? team.name.eq(condition.getTeamName()) : null,
+            condition.getAgeGoe() != null ? member.age.goe(condition.getAgeGoe()) : null,
+            condition.getAgeLoe() != null ? member.age.loe(condition.getAgeLoe()) : null);
+  }
+}
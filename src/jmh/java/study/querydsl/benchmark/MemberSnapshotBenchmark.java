@@ -0,0 +1,73 @@
+package study.querydsl.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberColumnarSnapshot.Source;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCondition;
+
+// 넓은 나이 범위 조회: DB vs 컬럼형 메모리 스냅샷 병렬 스캔
+// H2 는 같은 쿼리를 같은 값으로 반복하면 결과를 재사용하므로 호출마다 나이 하한을 바꾼다
+// ./gradlew jmh -Pjmh.includes=MemberSnapshotBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class MemberSnapshotBenchmark {
+
+  @Param({"1000000"})
+  public long members;
+
+  @Param({"DATABASE", "SNAPSHOT"})
+  public Source source;
+
+  ConfigurableApplicationContext context;
+  MemberRepository memberRepository;
+  MemberSearchCondition wideRange;
+  MemberSearchCondition teamAndRange;
+  int invocation;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    // 측정과 무관한 username 메모리 인덱스는 끈다
+    context = BenchmarkApplication.start(members, 10,
+        "--member.search.columnar.enabled=true",
+        "--member.search.username-index.enabled=false");
+    memberRepository = context.getBean(MemberRepository.class);
+    wideRange = new MemberSearchCondition();
+    wideRange.setAgeGoe(10);
+    wideRange.setAgeLoe(90);
+    teamAndRange = new MemberSearchCondition();
+    teamAndRange.setTeamName("teamB");
+    teamAndRange.setAgeGoe(30);
+    teamAndRange.setAgeLoe(35);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public long countWideRange() {
+    wideRange.setAgeGoe(10 + invocation++ % 10);
+    return memberRepository.searchCount(wideRange, source);
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> searchTeamAndRange() {
+    teamAndRange.setAgeGoe(30 + invocation++ % 5);
+    return memberRepository.search(teamAndRange, source);
+  }
+}
@@ -0,0 +1,94 @@
+package study.querydsl.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+// 회원 insert 처리량(ops/s = 초당 insert 수): save 반복 vs saveAll(flush/clear)
+// config=BASELINE 은 JDBC batch, insert 정렬, pooled-lo id 를 모두 끈 이전 설정 (시퀀스는 insert 마다 조회)
+// ./gradlew jmh -Pjmh.includes=SaveAllBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SaveAllBenchmark {
+
+  private static final int ROWS = 5_000;
+
+  public enum Config {
+    BASELINE, BATCHED
+  }
+
+  @Param({"BASELINE", "BATCHED"})
+  public Config config;
+
+  ConfigurableApplicationContext context;
+  MemberJpaRepository memberJpaRepository;
+  TransactionTemplate tx;
+  JdbcTemplate jdbcTemplate;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    String[] args = config == Config.BASELINE
+        ? new String[]{
+            "--spring.jpa.properties.hibernate.jdbc.batch_size=0",
+            "--spring.jpa.properties.hibernate.order_inserts=false",
+            "--spring.jpa.properties.hibernate.order_updates=false",
+            "--spring.jpa.properties.hibernate.id.optimizer.pooled.preferred=none"}
+        : new String[0];
+    context = BenchmarkApplication.start(0, 0, args);
+    memberJpaRepository = context.getBean(MemberJpaRepository.class);
+    tx = context.getBean(TransactionTemplate.class);
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+  }
+
+  // 매 반복 테이블 크기가 같도록 비운다
+  @TearDown(Level.Iteration)
+  public void truncate() {
+    jdbcTemplate.update("delete from member");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void saveLoop() {
+    tx.executeWithoutResult(status -> {
+      for (Member member : newMembers()) {
+        memberJpaRepository.save(member);
+      }
+    });
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void saveAll() {
+    tx.executeWithoutResult(status -> memberJpaRepository.saveAll(newMembers()));
+  }
+
+  private List<Member> newMembers() {
+    List<Member> members = new ArrayList<>(ROWS);
+    for (int i = 0; i < ROWS; i++) {
+      members.add(new Member("member" + i, i % 100));
+    }
+    return members;
+  }
+}
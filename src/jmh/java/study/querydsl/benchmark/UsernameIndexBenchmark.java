@@ -0,0 +1,60 @@
+package study.querydsl.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCondition;
+import study.querydsl.repository.UsernameNgramIndex.Match;
+
+// username 자동완성 / 부분 일치 검색: trigram 인덱스(index=true) vs DB like (index=false)
+// ./gradlew jmh -Pjmh.includes=UsernameIndexBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class UsernameIndexBenchmark {
+
+  @Param({"100000", "1000000"})
+  public long members;
+
+  @Param({"true", "false"})
+  public boolean index;
+
+  ConfigurableApplicationContext context;
+  MemberRepository memberRepository;
+  MemberSearchCondition condition;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start(members, 10, "--member.search.username-index.enabled=" + index);
+    memberRepository = context.getBean(MemberRepository.class);
+    condition = new MemberSearchCondition();
+    condition.setTeamName("teamB");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<String> autocomplete() {
+    return memberRepository.autocompleteUsername("member4242", 10);
+  }
+
+  @Benchmark
+  public List<MemberTeamDto> contains() {
+    return memberRepository.searchByUsername(Match.CONTAINS, "r4242", condition, 20);
+  }
+}
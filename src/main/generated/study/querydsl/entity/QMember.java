@@ -30,6 +30,8 @@ public class QMember extends EntityPathBase<Member> {
 
     public final StringPath username = createString("username");
 
+    public final NumberPath<Long> version = createNumber("version", Long.class);
+
     public QMember(String variable) {
         this(Member.class, forVariable(variable), INITS);
     }
@@ -0,0 +1,71 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.Assert;
+import study.querydsl.config.ReplicaDataSourceProperties.Replica;
+
+// member.datasource.routing-enabled=true 일 때만 DataSource 를 직접 구성한다. (그 외엔 스프링 부트 기본 DataSource 하나)
+// LazyConnectionDataSourceProxy 는 실제 커넥션을 첫 SQL 시점까지 미루므로
+// 트랜잭션 시작 때 걸린 readOnly 플래그를 보고 replica / primary 를 고를 수 있다.
+// p6spy 는 getConnection 에서 바로 메타데이터를 읽어 커넥션을 확정시키므로 프록시(routingDataSource)가 아니라 안쪽 풀들을 감싼다. (decorator.datasource.exclude-beans)
+@Configuration
+@ConditionalOnProperty(prefix = "member.datasource", name = "routing-enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  ReplicaRoutingDataSource replicaDataSource(ReplicaDataSourceProperties properties,
+      DataSourceProperties primary, @Qualifier("primaryDataSource") DataSource primaryDataSource) {
+    Assert.state(!properties.getReplicas().isEmpty(), "member.datasource.replicas 가 비어 있습니다");
+    List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+    for (int i = 0; i < properties.getReplicas().size(); i++) {
+      Replica replica = properties.getReplicas().get(i);
+      String name = replica.getName() != null ? replica.getName() : "replica-" + (i + 1);
+      replicas.add(new ReplicaRoutingDataSource.Replica(name, replicaPool(name, replica, primary, properties)));
+    }
+    return new ReplicaRoutingDataSource(replicas,
+        properties.isFallbackToPrimary() ? primaryDataSource : null,
+        properties.getHealthCheckInterval().toMillis());
+  }
+
+  @Bean
+  @Primary
+  DataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+    dataSource.setReadOnlyDataSource(replicaDataSource);
+    return dataSource;
+  }
+
+  // 계정을 따로 적지 않으면 primary 계정을 그대로 쓴다
+  private static HikariDataSource replicaPool(String name, Replica replica,
+      DataSourceProperties primary, ReplicaDataSourceProperties properties) {
+    HikariDataSource pool = new HikariDataSource();
+    pool.setPoolName(name);
+    pool.setJdbcUrl(replica.getUrl());
+    pool.setUsername(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername());
+    pool.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword());
+    pool.setDriverClassName(primary.determineDriverClassName());
+    pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+    pool.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+    pool.setReadOnly(true);
+    pool.setInitializationFailTimeout(-1); // 기동 시 replica 가 죽어 있어도 실패하지 않고 eject 로 처리
+    return pool;
+  }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.config;
+
+import java.util.List;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+  // StatementInspector 는 하나만 등록할 수 있으므로 스프링 빈으로 등록된 것들을 순서대로 묶는다
+  @Bean
+  HibernatePropertiesCustomizer statementInspectorCustomizer(ObjectProvider<StatementInspector> inspectors) {
+    return properties -> {
+      List<StatementInspector> delegates = inspectors.orderedStream().toList();
+      if (!delegates.isEmpty()) {
+        properties.put(AvailableSettings.STATEMENT_INSPECTOR, new CompositeStatementInspector(delegates));
+      }
+    };
+  }
+
+  static class CompositeStatementInspector implements StatementInspector {
+
+    private final List<StatementInspector> delegates;
+
+    CompositeStatementInspector(List<StatementInspector> delegates) {
+      this.delegates = delegates;
+    }
+
+    @Override
+    public String inspect(String sql) {
+      String result = sql;
+      for (StatementInspector delegate : delegates) {
+        result = delegate.inspect(result);
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// 읽기 전용 복제본(replica) 라우팅 설정 (member.datasource.*)
+// 쓰기와 트랜잭션 밖 조회는 spring.datasource(primary), @Transactional(readOnly = true) 는 replicas 로 보낸다.
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "member.datasource")
+public class ReplicaDataSourceProperties {
+
+  private boolean routingEnabled = false;
+  private List<Replica> replicas = new ArrayList<>();      // 여러 개면 round-robin
+
+  private Duration healthCheckInterval = Duration.ofSeconds(5); // 빠진 replica 를 다시 검사하는 주기
+  private Duration connectionTimeout = Duration.ofSeconds(1);   // replica 커넥션 획득 대기 (최소 250ms)
+  private boolean fallbackToPrimary = true; // 살아있는 replica 가 없으면 primary 에서 읽는다
+
+  @Getter
+  @Setter
+  public static class Replica {
+    private String name;
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+  }
+}
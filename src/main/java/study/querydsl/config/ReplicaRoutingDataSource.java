@@ -0,0 +1,152 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLNonTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+// replica 풀들을 round-robin 으로 고르는 DataSource
+// DB 에 연결할 수 없는 replica 는 빼두고(eject), 주기적인 검사에서 다시 살아나면 되돌린다.
+// 풀이 바빠서 커넥션을 기다리다 끝난 경우(Hikari 의 timeout)는 장애가 아니므로 빼지 않고 다음 replica 로 넘어간다.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+  private final List<Replica> replicas;
+  private final DataSource fallback; // null 이면 replica 가 모두 죽었을 때 예외
+  private final AtomicInteger next = new AtomicInteger();
+  private final ScheduledExecutorService healthChecker;
+
+  public ReplicaRoutingDataSource(List<Replica> replicas, DataSource fallback, long healthCheckIntervalMillis) {
+    this.replicas = List.copyOf(replicas);
+    this.fallback = fallback;
+    this.healthChecker = Executors.newSingleThreadScheduledExecutor(
+        new CustomizableThreadFactory("replica-health-"));
+    this.healthChecker.scheduleWithFixedDelay(this::checkHealth,
+        healthCheckIntervalMillis, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public List<Replica> getReplicas() {
+    return replicas;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return connect(DataSource::getConnection);
+  }
+
+  // 고른 replica(또는 fallback)에 계정을 그대로 넘긴다. 지원하지 않는 풀(Hikari)이면 그 예외가 그대로 나가고 eject 하지 않는다
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return connect(dataSource -> dataSource.getConnection(username, password));
+  }
+
+  private Connection connect(ConnectionOpener opener) throws SQLException {
+    SQLException failure = null;
+    int size = replicas.size();
+    int start = Math.floorMod(next.getAndIncrement(), size);
+    for (int i = 0; i < size; i++) {
+      Replica replica = replicas.get((start + i) % size);
+      if (!replica.isHealthy()) {
+        continue;
+      }
+      try {
+        return opener.open(replica.getDataSource());
+      } catch (SQLFeatureNotSupportedException e) {
+        throw e;
+      } catch (SQLException e) {
+        if (isConnectivityFailure(e)) {
+          eject(replica, e);
+        }
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (fallback != null) {
+      log.warn("no healthy replica, reading from primary");
+      return opener.open(fallback);
+    }
+    throw failure != null ? failure : new SQLException("no healthy replica");
+  }
+
+  // 빠진 replica 만 다시 붙여본다. 살아있는 replica 의 장애는 getConnection 에서 바로 감지된다.
+  void checkHealth() {
+    for (Replica replica : replicas) {
+      if (replica.isHealthy()) {
+        continue;
+      }
+      try (Connection connection = replica.getDataSource().getConnection()) {
+        if (connection.isValid(1)) {
+          replica.healthy = true;
+          log.info("replica {} is back", replica.getName());
+        }
+      } catch (SQLException e) {
+        log.debug("replica {} is still down: {}", replica.getName(), e.getMessage());
+      }
+    }
+  }
+
+  // Hikari 는 DB 가 죽어 있어도 풀이 바빠도 SQLTransientConnectionException 을 던진다.
+  // DB 가 죽어 있으면 마지막 연결 실패가 cause 로 붙고 그 SQLState 를 그대로 쓰므로, 예외나 원인이
+  // 연결 실패(SQLNonTransientConnectionException, SQLState 08xxx)일 때만 장애로 본다
+  static boolean isConnectivityFailure(SQLException e) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof SQLNonTransientConnectionException) {
+        return true;
+      }
+      if (t instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void eject(Replica replica, SQLException cause) {
+    if (replica.healthy) {
+      replica.healthy = false;
+      log.warn("replica {} ejected: {}", replica.getName(), cause.getMessage());
+    }
+  }
+
+  @Override
+  public void destroy() {
+    healthChecker.shutdownNow();
+    for (Replica replica : replicas) {
+      if (replica.getDataSource() instanceof HikariDataSource hikari) {
+        hikari.close();
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface ConnectionOpener {
+    Connection open(DataSource dataSource) throws SQLException;
+  }
+
+  @Getter
+  public static class Replica {
+
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean healthy = true;
+
+    public Replica(String name, DataSource dataSource) {
+      this.name = name;
+      this.dataSource = dataSource;
+    }
+  }
+}
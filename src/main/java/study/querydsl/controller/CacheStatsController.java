@@ -0,0 +1,70 @@
+package study.querydsl.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.repository.MemberColumnarSnapshot;
+import study.querydsl.repository.MemberNearCache;
+import study.querydsl.repository.MemberSearchCache;
+
+// 2차 캐시 region 별 hit/miss/put 통계
+@RestController
+@RequiredArgsConstructor
+public class CacheStatsController {
+
+  private final EntityManagerFactory emf;
+  private final MemberSearchCache memberSearchCache;
+  private final MemberNearCache memberNearCache;
+  private final MemberColumnarSnapshot memberColumnarSnapshot;
+
+  @GetMapping("/stats/cache")
+  public Map<String, Map<String, Long>> secondLevelCache() {
+    Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+    for (String region : statistics.getSecondLevelCacheRegionNames()) {
+      CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+      Map<String, Long> values = new LinkedHashMap<>();
+      values.put("hitCount", regionStatistics.getHitCount());
+      values.put("missCount", regionStatistics.getMissCount());
+      values.put("putCount", regionStatistics.getPutCount());
+      values.put("elementCountInMemory", regionStatistics.getElementCountInMemory());
+      result.put(region, values);
+    }
+    return result;
+  }
+
+  @GetMapping("/stats/search-cache")
+  public Map<String, Object> searchCache() {
+    CacheStats stats = memberSearchCache.stats();
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("hitCount", stats.hitCount());
+    result.put("missCount", stats.missCount());
+    result.put("hitRate", stats.hitRate());
+    result.put("evictionCount", stats.evictionCount());
+    return result;
+  }
+
+  @GetMapping("/stats/member-near-cache")
+  public Map<String, Object> memberNearCache() {
+    CacheStats stats = memberNearCache.stats();
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("size", memberNearCache.size());
+    result.put("hitCount", stats.hitCount());
+    result.put("missCount", stats.missCount());
+    result.put("hitRate", stats.hitRate());
+    result.put("evictionCount", stats.evictionCount());
+    return result;
+  }
+
+  @GetMapping("/stats/member-snapshot")
+  public Map<String, Object> memberSnapshot() {
+    return memberColumnarSnapshot.stats();
+  }
+}
@@ -1,40 +1,32 @@
 package study.querydsl.controller;
 
-import jakarta.annotation.PostConstruct;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.service.MemberDataGenerator;
+import study.querydsl.service.MemberSeedProperties;
 
 @Profile("local")
 @Component
 @RequiredArgsConstructor
 public class InitMember {
 
-  private final InitMemberService initMemberService;
+  private final MemberDataGenerator memberDataGenerator;
+  private final MemberSeedProperties properties;
 
-  @PostConstruct
+  @EventListener(ApplicationReadyEvent.class)
   public void init() {
-    initMemberService.init();
-  }
-  @Component
-  static class InitMemberService {
-    @PersistenceContext
-    EntityManager em;
-    @Transactional
-    public void init() {
-      Team teamA = new Team("teamA");
-      Team teamB = new Team("teamB");
-      em.persist(teamA);
-      em.persist(teamB);
-      for (int i = 0; i < 100; i++) {
-        Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-        em.persist(new Member("member" + i, i, selectedTeam));
-      }
+    if (!properties.isEnabled()) {
+      return;
+    }
+    if (properties.isAsync()) {
+      Thread thread = new Thread(memberDataGenerator::generate, "member-seed");
+      thread.setDaemon(true);
+      thread.start();
+    } else {
+      memberDataGenerator.generate();
     }
   }
-}
\ No newline at end of file
+}
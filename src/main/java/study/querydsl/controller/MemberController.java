@@ -1,16 +1,31 @@
 package study.querydsl.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.CursorPage;
+import study.querydsl.dto.FacetedPage;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.InvalidSearchRequestException;
+import study.querydsl.repository.MemberColumnarSnapshot.Source;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
 import study.querydsl.repository.MemberSearchCondition;
+import study.querydsl.repository.UsernameNgramIndex.Match;
+import study.querydsl.service.MemberExportService;
+import study.querydsl.service.MemberExportService.ExportFormat;
 
 @RestController
 @RequiredArgsConstructor
@@ -20,6 +35,8 @@ public class MemberController {
 
   private final MemberRepository memberRepository;
 
+  private final MemberExportService memberExportService;
+
   @GetMapping("/v1/members")
   public List<MemberTeamDto> searchMemberV1(@RequestBody MemberSearchCondition condition) {
     return memberJpaRepository.search(condition);
@@ -29,8 +46,78 @@ public class MemberController {
   public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
     return memberRepository.searchPageSimple(condition, pageable);
   }
+  // facets=true 면 같은 조건의 팀별 / 나이대별 건수를 응답의 facets 필드로 함께 내려준다
   @GetMapping("/v3/members")
-  public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-    return memberRepository.searchPageComplex(condition, pageable);
+  public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean facets) {
+    Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, pageable);
+    return facets ? new FacetedPage<>(page, memberRepository.searchFacets(condition)) : page;
+  }
+
+  @GetMapping("/v3/members/slice")
+  public Slice<MemberTeamDto> searchMemberV3Slice(MemberSearchCondition condition, Pageable pageable) {
+    return memberRepository.searchSlice(condition, pageable);
+  }
+
+  @GetMapping("/v4/members")
+  public CursorPage<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size) {
+    return memberRepository.searchByCursor(condition, cursor, size);
+  }
+
+  // /v3/members 와 같은 조건, member_search 읽기 모델에서 조인 없이 조회
+  @GetMapping("/v5/members")
+  public Page<MemberTeamDto> searchMemberV5(MemberSearchCondition condition, Pageable pageable) {
+    return memberRepository.searchReadModel(condition, pageable);
+  }
+
+  // 넓은 범위 조회용. source=SNAPSHOT 이면 컬럼형 메모리 스냅샷을 병렬 스캔 (member.search.columnar.enabled)
+  @GetMapping("/v6/members")
+  public List<MemberTeamDto> searchMemberV6(MemberSearchCondition condition,
+      @RequestParam(defaultValue = "DATABASE") Source source) {
+    return memberRepository.search(condition, source);
+  }
+
+  @GetMapping("/v6/members/count")
+  public long countMemberV6(MemberSearchCondition condition,
+      @RequestParam(defaultValue = "DATABASE") Source source) {
+    return memberRepository.searchCount(condition, source);
+  }
+
+  // 예) /v3/members/username?contains=ber1&teamName=teamA, /v3/members/username?startsWith=mem
+  @GetMapping("/v3/members/username")
+  public List<MemberTeamDto> searchMemberByUsername(MemberSearchCondition condition,
+      @RequestParam(required = false) String contains,
+      @RequestParam(required = false) String startsWith,
+      @RequestParam(defaultValue = "20") int limit) {
+    if (StringUtils.hasText(contains) == StringUtils.hasText(startsWith)) {
+      throw new InvalidSearchRequestException("contains 와 startsWith 중 하나만 지정해야 합니다");
+    }
+    return StringUtils.hasText(contains)
+        ? memberRepository.searchByUsername(Match.CONTAINS, contains, condition, limit)
+        : memberRepository.searchByUsername(Match.STARTS_WITH, startsWith, condition, limit);
+  }
+
+  @GetMapping("/members/username-autocomplete")
+  public List<String> autocompleteUsername(@RequestParam String prefix,
+      @RequestParam(defaultValue = "10") int limit) {
+    return memberRepository.autocompleteUsername(prefix, limit);
+  }
+
+  @GetMapping("/members/export")
+  public void exportMembers(MemberSearchCondition condition,
+      @RequestParam(defaultValue = "ndjson") String format,
+      HttpServletResponse response) throws IOException {
+    ExportFormat exportFormat = ExportFormat.from(format);
+    response.setContentType(exportFormat.getContentType());
+    response.setCharacterEncoding("UTF-8");
+    memberExportService.export(condition, exportFormat, response.getOutputStream());
+  }
+
+  // 잘못된 커서 / 검색 파라미터만 클라이언트 오류로 내려준다. 그 밖의 IllegalArgumentException 은 서버 오류(500) 그대로 둔다
+  @ExceptionHandler(InvalidSearchRequestException.class)
+  public ProblemDetail badRequest(InvalidSearchRequestException e) {
+    return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
   }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package study.querydsl.controller;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.monitoring.SearchIndexAdvisor;
+import study.querydsl.monitoring.SearchIndexAdvisor.QueryPlan;
+import study.querydsl.repository.MemberSearchCondition;
+
+// 검색 쿼리별 H2 EXPLAIN. 예) /stats/search-explain?scansOnly=true -> 아직 tableScan 이 남은 쿼리만
+@RestController
+@RequiredArgsConstructor
+public class SearchExplainController {
+
+  private final SearchIndexAdvisor searchIndexAdvisor;
+
+  @GetMapping("/stats/search-explain")
+  public List<QueryPlan> explain(MemberSearchCondition sample,
+      @RequestParam(defaultValue = "false") boolean scansOnly) {
+    // 조건 값이 없으면 샘플 값으로 채운다 (조건 조합별 실행 계획을 보는 것이 목적)
+    if (sample.getUsername() == null) {
+      sample.setUsername("member1");
+    }
+    if (sample.getTeamName() == null) {
+      sample.setTeamName("teamA");
+    }
+    if (sample.getAgeGoe() == null) {
+      sample.setAgeGoe(20);
+    }
+    if (sample.getAgeLoe() == null) {
+      sample.setAgeLoe(30);
+    }
+    List<QueryPlan> plans = searchIndexAdvisor.explain(sample);
+    return scansOnly ? plans.stream().filter(plan -> !plan.tableScans().isEmpty()).toList() : plans;
+  }
+}
@@ -0,0 +1,66 @@
+package study.querydsl.controller;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.monitoring.SqlTelemetryListener;
+import study.querydsl.monitoring.SqlTelemetryProperties;
+
+// SQL 텔레메트리 상태 조회 / 재시작 없이 켜고 끄기
+@RestController
+@RequiredArgsConstructor
+public class SqlTelemetryController {
+
+  private final SqlTelemetryProperties properties;
+  private final SqlTelemetryListener listener;
+
+  @GetMapping("/stats/sql-telemetry")
+  public Map<String, Object> status(@RequestParam(defaultValue = "20") int recent) {
+    Map<String, Object> result = settings();
+    result.put("recorded", listener.getBuffer().getWritten());
+    result.put("dropped", listener.getBuffer().getDropped());
+    result.put("recent", listener.getBuffer().recent(recent));
+    return result;
+  }
+
+  // 예) POST /stats/sql-telemetry?enabled=true&sampleRate=0.05&slowThresholdMillis=200
+  @PostMapping("/stats/sql-telemetry")
+  public Map<String, Object> update(@RequestParam(required = false) Boolean enabled,
+      @RequestParam(required = false) Double sampleRate,
+      @RequestParam(required = false) Long slowThresholdMillis) {
+    if (sampleRate != null && (sampleRate < 0 || sampleRate > 1)) {
+      throw new IllegalArgumentException("sampleRate 는 0 ~ 1 사이여야 합니다: " + sampleRate);
+    }
+    if (sampleRate != null) {
+      properties.setSampleRate(sampleRate);
+    }
+    if (slowThresholdMillis != null) {
+      properties.setSlowThreshold(Duration.ofMillis(slowThresholdMillis));
+    }
+    if (enabled != null) {
+      properties.setEnabled(enabled);
+    }
+    return settings();
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ProblemDetail badRequest(IllegalArgumentException e) {
+    return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+  }
+
+  private Map<String, Object> settings() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("enabled", properties.isEnabled());
+    result.put("sampleRate", properties.getSampleRate());
+    result.put("slowThreshold", properties.getSlowThreshold().toString());
+    return result;
+  }
+}
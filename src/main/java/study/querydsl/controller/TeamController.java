@@ -0,0 +1,21 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamWithMembersDto;
+import study.querydsl.repository.TeamRepository;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+  private final TeamRepository teamRepository;
+
+  @GetMapping("/teams")
+  public Page<TeamWithMembersDto> teams(Pageable pageable) {
+    return teamRepository.findTeamsWithMembers(pageable);
+  }
+}
@@ -0,0 +1,13 @@
+package study.querydsl.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+  private List<T> content;
+  private String nextCursor; // 다음 페이지가 없으면 null
+  private boolean hasNext;
+}
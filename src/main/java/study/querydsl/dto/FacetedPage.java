@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+// 기존 Page 응답에 facets 필드만 덧붙인다. facets 를 요청하지 않으면 응답 모양은 Page 와 같다
+public class FacetedPage<T> extends PageImpl<T> {
+
+  private final MemberFacets facets;
+
+  public FacetedPage(Page<T> page, MemberFacets facets) {
+    super(List.copyOf(page.getContent()), page.getPageable(), page.getTotalElements());
+    this.facets = facets;
+  }
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public MemberFacets getFacets() {
+    return facets;
+  }
+}
@@ -0,0 +1,14 @@
+package study.querydsl.dto;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// 검색 결과 전체(페이지가 아니라 조건에 맞는 모든 회원)에 대한 팀별 / 나이대별 건수
+@Data
+@AllArgsConstructor
+public class MemberFacets {
+  private Map<String, Long> teams; // 팀명 -> 회원 수 (팀명 순)
+  private long noTeam; // 팀이 없는 회원 수
+  private Map<Integer, Long> ageDecades; // 10살 단위 나이대(0, 10, 20, ...) -> 회원 수
+}
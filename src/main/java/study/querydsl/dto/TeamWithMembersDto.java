@@ -0,0 +1,20 @@
+package study.querydsl.dto;
+
+import java.util.List;
+import lombok.Data;
+import study.querydsl.entity.Team;
+
+@Data
+public class TeamWithMembersDto {
+  private Long teamId;
+  private String name;
+  private List<MemberDto> members;
+
+  public TeamWithMembersDto(Team team) {
+    this.teamId = team.getId();
+    this.name = team.getName();
+    this.members = team.getMembers().stream()
+        .map(member -> new MemberDto(member.getUsername(), member.getAge()))
+        .toList();
+  }
+}
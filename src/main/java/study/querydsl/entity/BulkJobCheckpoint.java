@@ -0,0 +1,66 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.util.DigestUtils;
+
+// 청크 단위 벌크 작업의 진행 위치. 청크와 같은 트랜잭션에서 갱신되므로 장애 후 마지막 커밋 지점부터 재개할 수 있다.
+// 작업 종류와 문장(SET 을 포함한 JPQL 과 상수 값)의 해시를 같이 저장해서, 같은 jobName 이라도 다른 작업이면 이어서 실행하지 않는다.
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class BulkJobCheckpoint {
+
+  @Id
+  private String jobName;
+
+  @Enumerated(EnumType.STRING)
+  private Operation operation;
+  private String statementHash;
+  private long lastId;    // 여기까지(포함) 처리 완료
+  private long maxId;     // 작업 시작 시점의 최대 id, 이후 추가된 행은 대상이 아니다
+  private long processed; // 지금까지 변경된 행 수
+  private boolean completed;
+  private LocalDateTime updatedAt;
+
+  public BulkJobCheckpoint(String jobName, Operation operation, String statement, long lastId, long maxId) {
+    this.jobName = jobName;
+    this.operation = operation;
+    this.statementHash = hash(statement);
+    this.lastId = lastId;
+    this.maxId = maxId;
+    this.updatedAt = LocalDateTime.now();
+  }
+
+  public boolean matches(Operation operation, String statement) {
+    return this.operation == operation && hash(statement).equals(statementHash);
+  }
+
+  public void advance(long lastId, long processed) {
+    this.lastId = lastId;
+    this.processed += processed;
+    this.updatedAt = LocalDateTime.now();
+  }
+
+  public void complete() {
+    this.completed = true;
+    this.updatedAt = LocalDateTime.now();
+  }
+
+  private static String hash(String statement) {
+    return DigestUtils.md5DigestAsHex(statement.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public enum Operation {
+    UPDATE, DELETE
+  }
+}
@@ -2,18 +2,32 @@ package study.querydsl.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import study.querydsl.event.EntityChangeListener;
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
+// MemberSearchCondition 조건(username =, team.name = -> team_id 조인, age between)과 findByUsername 용.
+// 적용 여부는 /stats/search-explain 으로 확인
+@Table(indexes = {
+    @Index(name = "idx_member_username", columnList = "username"),
+    @Index(name = "idx_member_team_id_age", columnList = "team_id, age"),
+    @Index(name = "idx_member_age", columnList = "age")})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -21,7 +35,8 @@ import lombok.ToString;
 public class Member  {
 
   @Id
-  @GeneratedValue
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+  @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 1000)
   @Column(name = "member_id")
   private Long id;
 
@@ -33,6 +48,10 @@ public class Member  {
   @JoinColumn(name = "team_id")
   private Team team;
 
+  // 낙관적 락 겸 MemberNearCache 스냅샷 무효화 기준
+  @Version
+  private Long version;
+
   public Member(String username) {
     this(username, 0);
   }
@@ -49,6 +68,15 @@ public class Member  {
     }
   }
 
+  // MemberNearCache 스냅샷에서 만드는 준영속 복사본. 영속성 컨텍스트와 무관하므로 변경해도 DB 에 반영되지 않는다
+  public static Member detached(Long id, String username, int age, Team team, Long version) {
+    Member member = new Member(username, age);
+    member.id = id;
+    member.team = team;
+    member.version = version;
+    return member;
+  }
+
   public void changeTeam(Team team) {
     this.team = team;
     team.getMembers().add(this);
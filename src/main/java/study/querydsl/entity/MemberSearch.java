@@ -0,0 +1,37 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+// 검색 전용 비정규화 테이블 (member + team.name). 조인 없이 MemberSearchCondition 조건과 MemberTeamDto 를 모두 처리한다.
+// 행은 JPA 가 아니라 MemberSearchProjection 이 JDBC 로 쓰므로 엔티티로는 조회만 한다.
+@Entity
+@Immutable
+@Table(name = "member_search", indexes = {
+    @Index(name = "idx_member_search_username", columnList = "username"),
+    @Index(name = "idx_member_search_team_name_age", columnList = "team_name, age"),
+    @Index(name = "idx_member_search_age", columnList = "age"),
+    @Index(name = "idx_member_search_team_id", columnList = "team_id")})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberSearch {
+
+  @Id
+  private Long memberId;
+
+  private String username;
+
+  private int age;
+
+  private Long teamId;
+
+  private String teamName;
+}
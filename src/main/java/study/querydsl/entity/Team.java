@@ -2,9 +2,14 @@ package study.querydsl.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.AccessLevel;
@@ -12,19 +17,29 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import study.querydsl.event.EntityChangeListener;
 
 @Entity
+@EntityListeners(EntityChangeListener.class)
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name")) // teamName 조건, findMemberJoinTeam
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team") // 거의 바뀌지 않으므로 2차 캐시
+@BatchSize(size = 100) // member.getTeam() 프록시 초기화를 100개씩 in 쿼리로
 public class Team {
 
   @Id
-  @GeneratedValue
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+  @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 100)
   @Column(name = "team_id")
   private Long id;
   private String name;
+  @BatchSize(size = 100)
   @OneToMany(mappedBy = "team")
   List<Member> members = new ArrayList<>();
 
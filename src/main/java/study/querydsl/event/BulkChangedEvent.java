@@ -0,0 +1,36 @@
+package study.querydsl.event;
+
+import java.util.function.Supplier;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 엔티티 이벤트를 거치지 않는 벌크 update/delete (queryFactory.update(member) 등)
+// 어떤 행이 바뀌었는지 알 수 없으므로 받는 쪽은 전체 무효화/재구축 해야 한다.
+// 단 ids 가 있으면 바뀐 회원이 그 id 구간 안에만 있다 (MemberBulkOperations 의 청크). 구간만 다시 읽어도 된다
+public record BulkChangedEvent(String table, String sql, IdRange ids) {
+
+  public BulkChangedEvent(String table, String sql) {
+    this(table, sql, null);
+  }
+
+  public boolean isDelete() {
+    return sql.regionMatches(true, 0, "delete", 0, 6);
+  }
+
+  // member_id 구간 (fromExclusive, toInclusive]
+  public record IdRange(long fromExclusive, long toInclusive) {
+
+    // 현재 트랜잭션에서 action 이 실행하는 member 벌크 DML 은 이 구간 안의 회원만 바꾼다
+    public <T> T bind(Supplier<T> action) {
+      TransactionSynchronizationManager.bindResource(IdRange.class, this);
+      try {
+        return action.get();
+      } finally {
+        TransactionSynchronizationManager.unbindResource(IdRange.class);
+      }
+    }
+
+    public static IdRange current() {
+      return (IdRange) TransactionSynchronizationManager.getResource(IdRange.class);
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package study.querydsl.event;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import study.querydsl.event.BulkChangedEvent.IdRange;
+
+// Hibernate 가 실행하는 SQL 중 member / team 벌크 update, delete 를 찾아 BulkChangedEvent 를 발행한다.
+// 엔티티 단위 DML(member: where member_id=? and version=?, team: where team_id=?)은 엔티티 리스너가 처리하므로 제외.
+// Member 는 @Version 이 있어서 version 조건이 없는 where member_id=? 는 queryFactory.update(member) 같은 벌크 DML 이다
+@Component
+@RequiredArgsConstructor
+public class BulkDmlStatementInspector implements StatementInspector {
+
+  private static final Pattern LEADING_COMMENT = Pattern.compile("^\\s*/\\*.*?\\*/\\s*", Pattern.DOTALL);
+  private static final Pattern DML = Pattern.compile(
+      "^(?:update|delete\\s+from)\\s+(member|team)\\b(.*)$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+  private static final Pattern MEMBER_ENTITY_DML = Pattern.compile(
+      "(?:.*\\s)?where\\s+member_id\\s*=\\s*\\?\\s+and\\s+version\\s*=\\s*\\?\\s*$",
+      Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+  private static final Pattern TEAM_ENTITY_DML = Pattern.compile(
+      "(?:.*\\s)?where\\s+team_id\\s*=\\s*\\?\\s*$",
+      Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  private final ApplicationEventPublisher publisher;
+
+  @Override
+  public String inspect(String sql) {
+    String statement = LEADING_COMMENT.matcher(sql).replaceFirst("");
+    if (statement.isEmpty() || !startsWithDml(statement)) {
+      return sql;
+    }
+    Matcher matcher = DML.matcher(statement);
+    if (!matcher.matches()) {
+      return sql;
+    }
+    String table = matcher.group(1).toLowerCase();
+    Pattern entityDml = table.equals("member") ? MEMBER_ENTITY_DML : TEAM_ENTITY_DML;
+    if (!entityDml.matcher(matcher.group(2)).matches()) {
+      IdRange ids = table.equals("member") ? IdRange.current() : null;
+      publisher.publishEvent(new BulkChangedEvent(table, statement, ids));
+    }
+    return sql;
+  }
+
+  private boolean startsWithDml(String statement) {
+    char first = Character.toLowerCase(statement.charAt(0));
+    return first == 'u' || first == 'd';
+  }
+}
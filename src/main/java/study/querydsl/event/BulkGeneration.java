@@ -0,0 +1,42 @@
+package study.querydsl.event;
+
+// 벌크 변경 세대 번호. 벌크 DML 이 실행될 때(BulkChangedEvent, 커밋 전)와 그 트랜잭션이 끝날 때(커밋/롤백 후) 올린다.
+// 읽기 전에 잡은 값이 읽은 뒤에도 같으면 그 사이에 실행되거나 커밋된 벌크 변경이 없다.
+// 실행 시점에만 올리면 실행 뒤에 시작해서 커밋 전 데이터를 읽은 재구축이 "변경 없음" 으로 끝나므로 커밋 때 한 번 더 올린다.
+// 벌크 변경 뒤 재구축으로 따라가는 메모리 인덱스의 ready 도 같이 관리한다 (세대가 바뀌면 false, 세대가 그대로인 재구축이 끝나면 true)
+// 검색 결과 캐시(MemberSearchCache, MemberCountCache)는 엔티티 변경까지 포함한 변경 세대로 쓴다 (ready 는 쓰지 않음)
+public class BulkGeneration {
+
+  private final Object completionKey = new Object(); // afterCompletionOnce 키 (같은 빈의 다른 콜백과 겹치지 않게)
+  private long generation; // this 로 보호
+  private volatile boolean ready;
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public synchronized long current() {
+    return generation;
+  }
+
+  // BulkChangedEvent 를 받은 스레드(벌크 DML 을 실행하는 트랜잭션)에서 호출한다.
+  // afterCompletion 은 트랜잭션이 끝난 뒤 세대를 다시 올린 다음 실행된다 (트랜잭션이 없으면 바로)
+  public void changed(Runnable afterCompletion) {
+    advance();
+    TransactionCallbacks.afterCompletionOnce(completionKey, () -> {
+      advance();
+      afterCompletion.run();
+    });
+  }
+
+  // 재구축이 끝났을 때. 시작할 때 잡은 세대 그대로면 ready, 아니면 그 변경을 반영할 다음 재구축까지 false
+  public synchronized boolean finish(long startedAt) {
+    ready = generation == startedAt;
+    return ready;
+  }
+
+  private synchronized void advance() {
+    generation++;
+    ready = false;
+  }
+}
@@ -0,0 +1,100 @@
+package study.querydsl.event;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+// 벌크 변경 뒤의 전체 재구축(메모리 인덱스, 읽기 모델 등)을 커밋한 스레드가 아니라 전용 백그라운드 스레드 하나에서 모아서 실행한다.
+// 요청이 이어지는 동안(청크마다 커밋하는 MemberBulkOperations 등)은 미루다가 quietPeriod 동안 새 요청이 없으면 한 번 실행하고,
+// 요청이 끊이지 않아도 첫 요청부터 maxDelay 가 지나면 실행한다. 실행 중에 들어온 요청은 끝난 뒤 한 번 더 실행한다.
+@Slf4j
+public class DebouncedRebuild implements AutoCloseable {
+
+  private final String name;
+  private final Runnable task;
+  private final long quietNanos;
+  private final long maxDelayNanos;
+  private final ScheduledExecutorService executor;
+  private final AtomicLong runs = new AtomicLong();
+
+  // this 로 보호
+  private boolean pending;
+  private boolean running;
+  private long firstRequest;
+  private long lastRequest;
+  private ScheduledFuture<?> scheduled;
+
+  public DebouncedRebuild(String name, Runnable task, Duration quietPeriod, Duration maxDelay) {
+    this.name = name;
+    this.task = task;
+    this.quietNanos = quietPeriod.toNanos();
+    this.maxDelayNanos = Math.max(quietNanos, maxDelay.toNanos());
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(name + "-rebuild-");
+    threadFactory.setDaemon(true);
+    this.executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+  }
+
+  public synchronized void request() {
+    long now = System.nanoTime();
+    if (!pending) {
+      pending = true;
+      firstRequest = now;
+    }
+    lastRequest = now;
+    if (scheduled == null) {
+      scheduled = executor.schedule(this::fire, quietNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  public long runs() {
+    return runs.get();
+  }
+
+  // 대기 중인 재구축이 모두 끝날 때까지 기다린다 (테스트, 종료 전 정리용)
+  public synchronized boolean awaitIdle(Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (pending || running) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    }
+    return true;
+  }
+
+  private void fire() {
+    synchronized (this) {
+      long due = Math.min(lastRequest + quietNanos, firstRequest + maxDelayNanos);
+      long wait = due - System.nanoTime();
+      if (wait > 0) {
+        scheduled = executor.schedule(this::fire, wait, TimeUnit.NANOSECONDS);
+        return;
+      }
+      pending = false;
+      running = true;
+      scheduled = null;
+    }
+    try {
+      task.run();
+      runs.incrementAndGet();
+    } catch (RuntimeException e) {
+      log.error("{} rebuild failed", name, e);
+    } finally {
+      synchronized (this) {
+        running = false;
+        notifyAll();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,39 @@
+package study.querydsl.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+// Member, Team 의 @EntityListeners. Hibernate 가 스프링 빈 컨테이너로 생성하므로 생성자 주입 가능
+@RequiredArgsConstructor
+public class EntityChangeListener {
+
+  private final ApplicationEventPublisher publisher;
+
+  @PostPersist
+  public void postPersist(Object entity) {
+    publish(EntityChangeType.PERSIST, entity);
+  }
+
+  @PostUpdate
+  public void postUpdate(Object entity) {
+    publish(EntityChangeType.UPDATE, entity);
+  }
+
+  @PostRemove
+  public void postRemove(Object entity) {
+    publish(EntityChangeType.REMOVE, entity);
+  }
+
+  private void publish(EntityChangeType type, Object entity) {
+    if (entity instanceof Member member) {
+      publisher.publishEvent(new MemberChangedEvent(type, member));
+    } else if (entity instanceof Team team) {
+      publisher.publishEvent(new TeamChangedEvent(type, team));
+    }
+  }
+}
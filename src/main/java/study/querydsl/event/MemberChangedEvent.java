@@ -0,0 +1,7 @@
+package study.querydsl.event;
+
+import study.querydsl.entity.Member;
+
+// Member 엔티티 변경 (persist / update / remove) - flush 시점에 같은 트랜잭션 안에서 발행된다
+public record MemberChangedEvent(EntityChangeType type, Member member) {
+}
@@ -0,0 +1,6 @@
+package study.querydsl.event;
+
+import study.querydsl.entity.Team;
+
+public record TeamChangedEvent(EntityChangeType type, Team team) {
+}
@@ -0,0 +1,56 @@
+package study.querydsl.event;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public abstract class TransactionCallbacks {
+
+  // 트랜잭션이 없으면 바로 실행, 있으면 트랜잭션이 끝난 뒤(커밋/롤백) 한 번만 실행한다.
+  // 같은 트랜잭션에서 변경이 여러 번 일어나도 key 당 한 번만 등록된다.
+  public static void afterCompletionOnce(Object key, Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    if (TransactionSynchronizationManager.hasResource(key)) {
+      return;
+    }
+    TransactionSynchronizationManager.bindResource(key, Boolean.TRUE);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(key);
+        action.run();
+      }
+    });
+  }
+
+  // 현재 트랜잭션에 묶인 key 의 값 (처음이면 factory 로 만들어 묶는다). 트랜잭션이 없으면 null.
+  // 커밋 직전에 같은 트랜잭션 안에서 beforeCommit 을 한 번 실행하고, 커밋/롤백 후에는 버린다.
+  public static <T> T bindOnce(Object key, Supplier<T> factory, Consumer<T> beforeCommit) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return null;
+    }
+    @SuppressWarnings("unchecked")
+    T bound = (T) TransactionSynchronizationManager.getResource(key);
+    if (bound != null) {
+      return bound;
+    }
+    T created = factory.get();
+    TransactionSynchronizationManager.bindResource(key, created);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void beforeCommit(boolean readOnly) {
+        beforeCommit.accept(created);
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(key);
+      }
+    });
+    return created;
+  }
+}
@@ -0,0 +1,96 @@
+package study.querydsl.monitoring;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.monitoring.QueryBudgetProperties.Mode;
+
+// Hibernate 가 준비하는 SQL 을 열린 범위(요청/트랜잭션)마다 센다.
+// 파라미터만 다른 같은 select 가 반복되면 N+1 로 보고, 범위별 예산을 넘으면 경고하거나(WARN) 실패시킨다(FAIL).
+// 문자열 비교와 HashMap 증가만 하므로 운영에서 WARN 으로 켜 두어도 부담이 적다.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryBudgetInspector implements StatementInspector {
+
+  private static final Pattern LEADING_COMMENT = Pattern.compile("^\\s*/\\*.*?\\*/\\s*", Pattern.DOTALL);
+  private static final Object TRANSACTION_SCOPE_KEY = new Object();
+
+  private final QueryBudgetProperties properties;
+
+  @Override
+  public String inspect(String sql) {
+    if (properties.getMode() == Mode.OFF) {
+      return sql;
+    }
+    openTransactionScopeIfNeeded();
+    List<QueryScope> scopes = QueryCounter.current();
+    if (scopes.isEmpty()) {
+      return sql;
+    }
+
+    String statement = sql.startsWith("/*") ? LEADING_COMMENT.matcher(sql).replaceFirst("") : sql;
+    boolean select = statement.regionMatches(true, 0, "select", 0, 6);
+    for (QueryScope scope : scopes) {
+      int repeats = scope.add(statement, select);
+      if (properties.getMode() == Mode.FAIL) {
+        failIfExceeded(scope, statement, repeats);
+      }
+    }
+    return sql;
+  }
+
+  private void failIfExceeded(QueryScope scope, String statement, int repeats) {
+    if (scope.getCount() > scope.getBudget()) {
+      throw new QueryBudgetExceededException(
+          scope.getName() + " exceeded query budget " + scope.getBudget());
+    }
+    if (repeats >= properties.getRepeatThreshold()) {
+      throw new QueryBudgetExceededException(
+          "possible N+1 in " + scope.getName() + ": " + repeats + " x " + statement);
+    }
+  }
+
+  // 트랜잭션마다 범위를 하나 열고 트랜잭션이 끝나면 보고한다
+  private void openTransactionScopeIfNeeded() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()
+        || TransactionSynchronizationManager.hasResource(TRANSACTION_SCOPE_KEY)) {
+      return;
+    }
+    String name = "transaction " + TransactionSynchronizationManager.getCurrentTransactionName();
+    QueryScope scope = QueryCounter.open(name, properties.getPerTransaction(), this::report);
+    TransactionSynchronizationManager.bindResource(TRANSACTION_SCOPE_KEY, scope);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SCOPE_KEY);
+        scope.close();
+      }
+    });
+  }
+
+  QueryScope openRequestScope(String name) {
+    if (properties.getMode() == Mode.OFF) {
+      return null;
+    }
+    return QueryCounter.open(name, properties.getPerRequest(), this::report);
+  }
+
+  private void report(QueryScope scope) {
+    if (properties.getMode() != Mode.WARN) {
+      return;
+    }
+    if (scope.getCount() > scope.getBudget()) {
+      log.warn("{} executed {} statements (budget {})", scope.getName(), scope.getCount(), scope.getBudget());
+    }
+    Map<String, Integer> repeated = scope.getRepeatedSelects(properties.getRepeatThreshold());
+    repeated.forEach((statement, times) ->
+        log.warn("possible N+1 in {}: {} x {}", scope.getName(), times, statement));
+  }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// 요청/트랜잭션 당 SQL 실행 수 제한 설정 (member.query-budget.*)
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "member.query-budget")
+public class QueryBudgetProperties {
+
+  private Mode mode = Mode.WARN;
+  private int perRequest = 100;
+  private int perTransaction = 50;
+  private int repeatThreshold = 10; // 파라미터만 다른 같은 select 가 이 횟수 이상이면 N+1 의심
+
+  public enum Mode {
+    OFF,  // 집계하지 않음
+    WARN, // 범위(요청/트랜잭션)가 끝날 때 경고 로그
+    FAIL  // 초과하는 순간 QueryBudgetExceededException
+  }
+}
@@ -0,0 +1,34 @@
+package study.querydsl.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// 현재 스레드에 열려 있는 QueryScope 목록. 테스트에서는 open() 으로 쿼리 수를 직접 셀 수 있다.
+//   try (QueryScope scope = QueryCounter.open("teams")) { ... scope.getCount() ... }
+public abstract class QueryCounter {
+
+  private static final ThreadLocal<List<QueryScope>> SCOPES = ThreadLocal.withInitial(ArrayList::new);
+
+  public static QueryScope open(String name) {
+    return open(name, Integer.MAX_VALUE, null);
+  }
+
+  static QueryScope open(String name, int budget, Consumer<QueryScope> onClose) {
+    QueryScope scope = new QueryScope(name, budget, onClose);
+    SCOPES.get().add(scope);
+    return scope;
+  }
+
+  static List<QueryScope> current() {
+    return SCOPES.get();
+  }
+
+  static void remove(QueryScope scope) {
+    List<QueryScope> scopes = SCOPES.get();
+    scopes.remove(scope);
+    if (scopes.isEmpty()) {
+      SCOPES.remove();
+    }
+  }
+}
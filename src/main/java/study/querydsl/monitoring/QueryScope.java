@@ -0,0 +1,59 @@
+package study.querydsl.monitoring;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// 하나의 범위(HTTP 요청, 트랜잭션, 테스트 코드 블록) 안에서 실행된 SQL 집계
+public class QueryScope implements AutoCloseable {
+
+  private final String name;
+  private final int budget;
+  private final Consumer<QueryScope> onClose;
+
+  private int count;
+  private final Map<String, Integer> selects = new HashMap<>();
+
+  QueryScope(String name, int budget, Consumer<QueryScope> onClose) {
+    this.name = name;
+    this.budget = budget;
+    this.onClose = onClose;
+  }
+
+  // 같은 select 문(파라미터는 ? 로 동일)이 몇 번째 실행인지 반환, select 가 아니면 0
+  int add(String sql, boolean select) {
+    count++;
+    return select ? selects.merge(sql, 1, Integer::sum) : 0;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getBudget() {
+    return budget;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public Map<String, Integer> getRepeatedSelects(int threshold) {
+    Map<String, Integer> result = new LinkedHashMap<>();
+    selects.forEach((sql, times) -> {
+      if (times >= threshold) {
+        result.put(sql, times);
+      }
+    });
+    return result;
+  }
+
+  @Override
+  public void close() {
+    QueryCounter.remove(this);
+    if (onClose != null) {
+      onClose.accept(this);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package study.querydsl.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.monitoring.SqlCaptureListener.CapturedStatement;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCondition;
+import study.querydsl.repository.MemberSearchTemplates;
+
+// 검색 조건 조합(16가지)마다 실제로 나가는 content / count SQL 과 findByUsername 등을 한 번씩 실행해 잡아낸 뒤
+// H2 EXPLAIN 결과에서 인덱스 없이 테이블 전체를 읽는(tableScan) 테이블을 찾는다. 릴리즈 전에 인덱스 누락 확인용
+@Component
+@RequiredArgsConstructor
+public class SearchIndexAdvisor {
+
+  private static final Pattern TABLE_SCAN = Pattern.compile("/\\*\\s*([\\w.\"]+)\\.tableScan", Pattern.CASE_INSENSITIVE);
+
+  private final SqlCaptureListener captureListener;
+  private final MemberSearchTemplates templates;
+  private final MemberRepository memberRepository;
+  private final JdbcTemplate jdbcTemplate;
+
+  public record QueryPlan(String query, String sql, String plan, List<String> tableScans) {
+  }
+
+  // sample 의 값은 조건이 켜진 조합에서만 쓰인다. 값 자체보다 조건의 모양이 중요하다
+  @Transactional(readOnly = true)
+  public List<QueryPlan> explain(MemberSearchCondition sample) {
+    List<QueryPlan> plans = new ArrayList<>();
+    for (int shape = 0; shape < 16; shape++) {
+      MemberSearchCondition condition = condition(sample, shape);
+      String name = describe(condition);
+      plans.addAll(explain(name + " content", () -> templates.fetch(condition, PageRequest.of(0, 1))));
+      plans.addAll(explain(name + " count", () -> templates.count(condition)));
+    }
+    plans.addAll(explain("findByUsername", () -> memberRepository.findByUsername(sample.getUsername())));
+    plans.addAll(explain("findMemberJoinTeam", () -> memberRepository.findMemberJoinTeam(sample.getTeamName())));
+    return plans;
+  }
+
+  private List<QueryPlan> explain(String query, Runnable action) {
+    List<CapturedStatement> statements = captureListener.capture(action);
+    if (statements.isEmpty()) {
+      return List.of(new QueryPlan(query, null, "SQL 을 잡지 못했습니다 (p6spy 가 꺼져 있거나 캐시/블룸 필터에서 걸러짐)", List.of()));
+    }
+    List<QueryPlan> plans = new ArrayList<>(statements.size());
+    for (CapturedStatement statement : statements) {
+      String plan;
+      try {
+        // 실행할 때와 같은 값을 바인딩해서 EXPLAIN (H2 는 파라미터가 있는 EXPLAIN 을 지원한다)
+        plan = String.join("\n", jdbcTemplate.queryForList("explain " + statement.sql(), String.class,
+            statement.parameters().toArray()));
+      } catch (DataAccessException e) {
+        plan = "EXPLAIN 실패: " + e.getMostSpecificCause().getMessage();
+      }
+      plans.add(new QueryPlan(query, statement.sql(), plan, tableScans(plan)));
+    }
+    return plans;
+  }
+
+  static List<String> tableScans(String plan) {
+    List<String> tables = new ArrayList<>();
+    Matcher matcher = TABLE_SCAN.matcher(plan);
+    while (matcher.find()) {
+      tables.add(matcher.group(1).replace("\"", ""));
+    }
+    return tables;
+  }
+
+  private static MemberSearchCondition condition(MemberSearchCondition sample, int shape) {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername((shape & 1) != 0 ? sample.getUsername() : null);
+    condition.setTeamName((shape & 2) != 0 ? sample.getTeamName() : null);
+    condition.setAgeGoe((shape & 4) != 0 ? sample.getAgeGoe() : null);
+    condition.setAgeLoe((shape & 8) != 0 ? sample.getAgeLoe() : null);
+    return condition;
+  }
+
+  private static String describe(MemberSearchCondition condition) {
+    List<String> parts = new ArrayList<>();
+    if (condition.getUsername() != null) {
+      parts.add("username");
+    }
+    if (condition.getTeamName() != null) {
+      parts.add("teamName");
+    }
+    if (condition.getAgeGoe() != null) {
+      parts.add("ageGoe");
+    }
+    if (condition.getAgeLoe() != null) {
+      parts.add("ageLoe");
+    }
+    return parts.isEmpty() ? "(none)" : String.join("+", parts);
+  }
+}
@@ -0,0 +1,59 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.stereotype.Component;
+
+// capture() 로 감싼 코드가 현재 스레드에서 실행한 SQL 과 바인딩 값을 모은다. (SearchIndexAdvisor 용)
+// getSqlWithValues() 는 Hibernate 가 앞에 붙이는 JPQL 주석 안의 ?1 까지 치환해서 값이 밀리므로 SQL 과 값을 따로 받는다.
+// p6spy 리스너는 DataSource 보다 먼저 만들어지므로 다른 빈에 의존하지 않는다
+@Component
+public class SqlCaptureListener extends SimpleJdbcEventListener {
+
+  private final ThreadLocal<Capture> current = new ThreadLocal<>();
+
+  public record CapturedStatement(String sql, List<Object> parameters) {
+  }
+
+  public List<CapturedStatement> capture(Runnable action) {
+    Capture capture = new Capture();
+    current.set(capture);
+    try {
+      action.run();
+    } finally {
+      current.remove();
+    }
+    return capture.statements;
+  }
+
+  @Override
+  public void onAfterPreparedStatementSet(PreparedStatementInformation statementInformation,
+      int parameterIndex, Object value, SQLException e) {
+    Capture capture = current.get();
+    if (capture != null) {
+      capture.parameters.computeIfAbsent(statementInformation, key -> new TreeMap<>()).put(parameterIndex, value);
+    }
+  }
+
+  @Override
+  public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+    Capture capture = current.get();
+    if (capture != null) {
+      Map<Integer, Object> parameters = capture.parameters.remove(statementInformation);
+      capture.statements.add(new CapturedStatement(statementInformation.getSql(),
+          parameters == null ? List.of() : new ArrayList<>(parameters.values())));
+    }
+  }
+
+  private static class Capture {
+    private final List<CapturedStatement> statements = new ArrayList<>();
+    private final Map<StatementInformation, Map<Integer, Object>> parameters = new IdentityHashMap<>();
+  }
+}
@@ -0,0 +1,10 @@
+package study.querydsl.monitoring;
+
+// 샘플링된 SQL 한 건. sql 은 파라미터 값이 채워진 문장
+public record SqlSample(long sequence, long timestamp, int connectionId, long elapsedNanos,
+                        String sql, String error) {
+
+  public double elapsedMillis() {
+    return elapsedNanos / 1_000_000.0;
+  }
+}
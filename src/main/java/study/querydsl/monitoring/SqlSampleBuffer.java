@@ -0,0 +1,97 @@
+package study.querydsl.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+// 락 없는 고정 크기 링 버퍼 (생산자 여럿, 소비자 하나)
+// 생산자는 순번을 하나 받아 슬롯에 덮어쓰기만 하므로 기다리지 않는다. 소비자가 못 따라오면 오래된 샘플은 버려진다.
+public class SqlSampleBuffer {
+
+  private final AtomicReferenceArray<SqlSample> slots;
+  private final int mask;
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private long read; // drain 은 한 스레드에서만 호출
+  private long stalled = -1; // 지난 drain 에서 아직 안 써진 채로 멈춘 순번
+
+  public SqlSampleBuffer(int size) {
+    int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+    this.slots = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  // 순번을 받은 뒤 샘플을 만들다 실패해도 슬롯은 채운다 (비워 두면 drain 이 그 순번에서 멈춘다)
+  public void add(LongFunction<SqlSample> sample) {
+    long sequence = written.getAndIncrement();
+    SqlSample value = skipped(sequence);
+    try {
+      value = sample.apply(sequence);
+    } finally {
+      slots.set((int) (sequence & mask), value);
+    }
+  }
+
+  // 마지막 drain 이후 기록된 샘플을 순서대로 넘긴다. 넘긴 개수 반환
+  public synchronized int drain(Consumer<SqlSample> consumer) {
+    long end = written.get();
+    if (end - read > slots.length()) {
+      dropped.addAndGet(end - read - slots.length());
+      read = end - slots.length();
+    }
+    int count = 0;
+    while (read < end) {
+      SqlSample sample = slots.get((int) (read & mask));
+      if (sample == null || sample.sequence() < read) {
+        // 순번은 받았지만 아직 쓰는 중 -> 다음 drain 에서 읽는다.
+        // 다음 drain 에서도 그대로면 쓰던 스레드가 멈춘 것으로 보고 버린다 (뒤 샘플까지 막히지 않게)
+        if (stalled != read) {
+          stalled = read;
+          break;
+        }
+        dropped.incrementAndGet();
+      } else if (sample.sequence() > read || isSkipped(sample)) {
+        dropped.incrementAndGet(); // 읽기 전에 덮어써짐, 또는 만들다 실패한 샘플
+      } else {
+        consumer.accept(sample);
+        count++;
+      }
+      read++;
+    }
+    return count;
+  }
+
+  // 버퍼에 남아 있는 최근 샘플 (drain 여부와 무관, 최신이 마지막)
+  public List<SqlSample> recent(int limit) {
+    long end = written.get();
+    long start = Math.max(0, end - Math.min(limit, slots.length()));
+    List<SqlSample> result = new ArrayList<>();
+    for (long sequence = start; sequence < end; sequence++) {
+      SqlSample sample = slots.get((int) (sequence & mask));
+      if (sample != null && sample.sequence() == sequence && !isSkipped(sample)) {
+        result.add(sample);
+      }
+    }
+    return result;
+  }
+
+  // 만들다 실패한 샘플 자리. sql 이 없는 샘플은 실제로 생기지 않는다
+  private static SqlSample skipped(long sequence) {
+    return new SqlSample(sequence, 0, 0, 0, null, null);
+  }
+
+  private static boolean isSkipped(SqlSample sample) {
+    return sample.sql() == null;
+  }
+
+  public long getWritten() {
+    return written.get();
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+}
@@ -0,0 +1,81 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+// p6spy 의 로그 대신 쓰는 운영용 SQL 텔레메트리
+// 실행 스레드에서는 샘플 여부만 정하고 링 버퍼에 넣는다. 파일/로그 출력은 별도 스레드가 모아서 한다. (로거: sql.telemetry)
+@Slf4j
+@Component
+public class SqlTelemetryListener extends SimpleJdbcEventListener implements DisposableBean {
+
+  private static final Logger telemetryLog = LoggerFactory.getLogger("sql.telemetry");
+
+  private final SqlTelemetryProperties properties;
+  private final SqlSampleBuffer buffer;
+  private final ScheduledExecutorService writer;
+
+  public SqlTelemetryListener(SqlTelemetryProperties properties) {
+    this.properties = properties;
+    this.buffer = new SqlSampleBuffer(properties.getBufferSize());
+    this.writer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("sql-telemetry-"));
+    long interval = properties.getFlushInterval().toMillis();
+    this.writer.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  public SqlSampleBuffer getBuffer() {
+    return buffer;
+  }
+
+  @Override
+  public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+    if (!properties.isEnabled() || !sampled(timeElapsedNanos, e)) {
+      return;
+    }
+    // 파라미터를 채운 SQL 문자열은 비용이 있으므로 샘플로 뽑힌 경우에만 만든다
+    String sql = truncate(statementInformation.getSqlWithValues());
+    int connectionId = statementInformation.getConnectionInformation().getConnectionId();
+    long timestamp = System.currentTimeMillis();
+    String error = e != null ? e.getMessage() : null;
+    buffer.add(sequence -> new SqlSample(sequence, timestamp, connectionId, timeElapsedNanos, sql, error));
+  }
+
+  private boolean sampled(long timeElapsedNanos, SQLException e) {
+    return e != null
+        || timeElapsedNanos >= properties.getSlowThreshold().toNanos()
+        || ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+  }
+
+  private String truncate(String sql) {
+    int max = properties.getMaxSqlLength();
+    return sql.length() <= max ? sql : sql.substring(0, max) + "...";
+  }
+
+  public int flush() {
+    try {
+      return buffer.drain(sample -> telemetryLog.info("{}ms | connection {} | {}{}",
+          String.format("%.3f", sample.elapsedMillis()), sample.connectionId(), sample.sql(),
+          sample.error() != null ? " | error " + sample.error() : ""));
+    } catch (RuntimeException ex) {
+      log.warn("sql telemetry flush failed", ex); // 스케줄러가 멈추지 않도록 삼킨다
+      return 0;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    writer.shutdown();
+    flush();
+  }
+}
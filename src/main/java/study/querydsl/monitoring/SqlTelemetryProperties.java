@@ -0,0 +1,24 @@
+package study.querydsl.monitoring;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// 샘플링 SQL 텔레메트리 설정 (member.sql-telemetry.*)
+// enabled / sampleRate / slowThreshold 는 실행 중에도 /stats/sql-telemetry 로 바꿀 수 있다.
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "member.sql-telemetry")
+public class SqlTelemetryProperties {
+
+  private volatile boolean enabled = false;
+  private volatile double sampleRate = 0.01;                    // 0.0 ~ 1.0
+  private volatile Duration slowThreshold = Duration.ofMillis(500); // 이보다 느리면 샘플링과 무관하게 기록
+
+  private int bufferSize = 4096;                  // 링 버퍼 크기 (2의 거듭제곱으로 올림)
+  private Duration flushInterval = Duration.ofSeconds(1);
+  private int maxSqlLength = 2000;                // 파라미터가 채워진 SQL 을 이 길이에서 자른다
+}
@@ -0,0 +1,13 @@
+package study.querydsl.repository;
+
+// 클라이언트가 보낸 검색 파라미터(커서, 검색어, size/limit, export 형식)가 잘못된 경우. MemberController 가 400 으로 응답한다
+public class InvalidSearchRequestException extends IllegalArgumentException {
+
+  public InvalidSearchRequestException(String message) {
+    super(message);
+  }
+
+  public InvalidSearchRequestException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,181 @@
+package study.querydsl.repository;
+
+import static study.querydsl.entity.QMember.member;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import study.querydsl.entity.BulkJobCheckpoint;
+import study.querydsl.entity.BulkJobCheckpoint.Operation;
+import study.querydsl.event.BulkChangedEvent.IdRange;
+
+// queryFactory.update(member) / delete(member) 를 id 구간(chunk) 단위로 나눠 실행한다.
+// 구간마다 커밋하고 영속성 컨텍스트를 비우므로 락을 오래 잡지 않고,
+// 같은 jobName 으로 다시 호출하면 마지막으로 커밋된 id 다음부터 이어서 실행한다.
+// 이어서 실행하려면 작업 문장(update/delete, SET, 조건)이 처음과 같아야 한다. 다르면 시작하지 않고 예외를 던진다.
+// 체크포인트 행은 비관적 락(select ... for update)으로 읽으므로 같은 jobName 을 동시에 실행하면 한쪽이 기다렸다가 거절된다.
+//
+//   bulkOperations.update("under-28", member.age.lt(28), update -> update.set(member.username, "비회원"));
+@Slf4j
+@Component
+public class MemberBulkOperations {
+
+  private final EntityManager em;
+  private final JPAQueryFactory queryFactory;
+  private final TransactionTemplate chunkTransaction;
+  private final int chunkSize;
+
+  public MemberBulkOperations(EntityManager em, JPAQueryFactory queryFactory,
+      PlatformTransactionManager transactionManager,
+      @Value("${member.bulk.chunk-size:10000}") int chunkSize) {
+    this.em = em;
+    this.queryFactory = queryFactory;
+    this.chunkTransaction = new TransactionTemplate(transactionManager);
+    this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.chunkSize = chunkSize;
+  }
+
+  public long update(String jobName, Predicate where, Consumer<JPAUpdateClause> set) {
+    return run(jobName, Operation.UPDATE, where, updateStatement(where, set), (from, to) -> {
+      JPAUpdateClause update = queryFactory.update(member);
+      set.accept(update);
+      return update.where(where, member.id.gt(from), member.id.loe(to)).execute();
+    });
+  }
+
+  public long delete(String jobName, Predicate where) {
+    return run(jobName, Operation.DELETE, where, deleteStatement(where), (from, to) -> {
+      JPADeleteClause delete = queryFactory.delete(member);
+      return delete.where(where, member.id.gt(from), member.id.loe(to)).execute();
+    });
+  }
+
+  // 체크포인트에 저장하는 작업 문장: id 구간 조건을 붙이기 전의 JPQL (SET 포함) + 상수 값.
+  // JPQL 은 상수를 ?1 같은 파라미터로만 쓰므로 SET 값과 조건(Predicate.toString 은 값 포함)을 따로 붙인다
+  String updateStatement(Predicate where, Consumer<JPAUpdateClause> set) {
+    UpdateStatement update = new UpdateStatement(em);
+    set.accept(update);
+    update.where(where);
+    return update + " " + update.values + " " + where;
+  }
+
+  String deleteStatement(Predicate where) {
+    return queryFactory.delete(member).where(where) + " " + where;
+  }
+
+  private long run(String jobName, Operation operation, Predicate where, String statementText, ChunkStatement statement) {
+    Assert.state(!TransactionSynchronizationManager.isActualTransactionActive(),
+        "청크마다 커밋해야 하므로 트랜잭션 밖에서 호출해야 합니다.");
+
+    BulkJobCheckpoint checkpoint = chunkTransaction.execute(status -> startOrResume(jobName, operation, where, statementText));
+    long from = checkpoint.getLastId();
+    long maxId = checkpoint.getMaxId();
+
+    while (from < maxId) {
+      long chunkFrom = from;
+      long chunkTo = Math.min(from + chunkSize, maxId);
+      checkpoint = chunkTransaction.execute(status -> {
+        // 체크포인트 행을 먼저 잠가서 같은 jobName 을 동시에 실행하는 쪽이 같은 구간을 다시 처리하지 않게 한다
+        BulkJobCheckpoint saved = lock(jobName);
+        Assert.state(saved.getLastId() == chunkFrom,
+            () -> "bulk job [" + jobName + "] 을 다른 곳에서 실행 중입니다 (id " + saved.getLastId() + " 까지 처리됨).");
+        // 이 청크의 벌크 DML 은 구간 안의 회원만 바꾼다고 알린다 (BulkChangedEvent.ids)
+        long count = new IdRange(chunkFrom, chunkTo).bind(() -> statement.execute(chunkFrom, chunkTo));
+        saved.advance(chunkTo, count);
+        em.flush();
+        em.clear();
+        return saved;
+      });
+      log.info("bulk job [{}] {}/{} ids, {} rows processed", jobName, chunkTo, maxId, checkpoint.getProcessed());
+      from = chunkTo;
+    }
+
+    BulkJobCheckpoint done = chunkTransaction.execute(status -> {
+      BulkJobCheckpoint saved = lock(jobName);
+      saved.complete();
+      return saved;
+    });
+    return done.getProcessed();
+  }
+
+  // 완료되지 않은 체크포인트가 있으면 이어서, 없거나 완료된 작업이면 새로 시작.
+  // 미완료 작업과 문장(종류, SET, 조건)이 다르면 이전 id 구간에 새 문장을 적용하게 되므로 거절한다
+  private BulkJobCheckpoint startOrResume(String jobName, Operation operation, Predicate where, String statement) {
+    BulkJobCheckpoint checkpoint = lock(jobName);
+    if (checkpoint != null && !checkpoint.isCompleted()) {
+      Assert.state(checkpoint.matches(operation, statement),
+          () -> "bulk job [" + jobName + "] 의 미완료 작업(" + checkpoint.getOperation() + ")과 문장이 다릅니다: "
+              + statement + ". 다른 jobName 을 쓰거나 체크포인트를 지운 뒤 다시 시작하세요.");
+      log.info("bulk job [{}] resumes after id {}", jobName, checkpoint.getLastId());
+      return checkpoint;
+    }
+    if (checkpoint != null) {
+      em.remove(checkpoint);
+      em.flush();
+    }
+    Long minId = queryFactory.select(member.id.min()).from(member).where(where).fetchOne();
+    Long maxId = queryFactory.select(member.id.max()).from(member).where(where).fetchOne();
+    BulkJobCheckpoint created = minId == null
+        ? new BulkJobCheckpoint(jobName, operation, statement, 0, 0)
+        : new BulkJobCheckpoint(jobName, operation, statement, minId - 1, maxId);
+    em.persist(created);
+    return created;
+  }
+
+  private BulkJobCheckpoint lock(String jobName) {
+    return em.find(BulkJobCheckpoint.class, jobName, LockModeType.PESSIMISTIC_WRITE);
+  }
+
+  // 실행하지 않고 문장만 만드는 update 절. SET 에 넘긴 값을 모아 둔다
+  private static class UpdateStatement extends JPAUpdateClause {
+    private final List<String> values = new ArrayList<>();
+
+    UpdateStatement(EntityManager em) {
+      super(em, member);
+    }
+
+    @Override
+    public <T> JPAUpdateClause set(Path<T> path, T value) {
+      values.add(path + " = " + value);
+      return super.set(path, value);
+    }
+
+    @Override
+    public <T> JPAUpdateClause set(Path<T> path, Expression<? extends T> expression) {
+      values.add(path + " = " + expression);
+      return super.set(path, expression);
+    }
+
+    @Override
+    public <T> JPAUpdateClause setNull(Path<T> path) {
+      values.add(path + " = null");
+      return super.setNull(path);
+    }
+
+    @Override
+    public JPAUpdateClause set(List<? extends Path<?>> paths, List<?> values) {
+      this.values.add(paths + " = " + values);
+      return super.set(paths, values);
+    }
+  }
+
+  private interface ChunkStatement {
+    long execute(long fromExclusive, long toInclusive);
+  }
+}
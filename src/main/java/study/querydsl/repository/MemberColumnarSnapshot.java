@@ -0,0 +1,577 @@
+package study.querydsl.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.BulkGeneration;
+import study.querydsl.event.DebouncedRebuild;
+import study.querydsl.event.EntityChangeType;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+
+// 분석성 조회(넓은 나이 범위, username 조건 없음)용 컬럼형 회원 스냅샷.
+// id 순으로 정렬된 long[] id, int[] age, int[] 팀 코드(팀 사전의 인덱스), int[] username 위치를 두고
+// search / count 를 블록 단위 병렬 스캔(ForkJoin 공용 풀)으로 처리한다.
+// username 은 String 대신 공유 byte[](길이 + UTF-8) 에 이어 붙이고 행은 그 위치만 가진다. 재구축 때 같은 이름은 한 번만 저장한다.
+// 회원당 28바이트 + username 바이트. 10M 명 측정: 이름이 모두 다르면("member" + 숫자) 회원당 약 44바이트, 1만 종류면 약 28바이트
+// 커밋된 Member/Team 변경은 엔티티 이벤트로 제자리 갱신하고 (커밋 후 콜백은 순서가 뒤바뀔 수 있으므로 @Version 이 더 낮은 변경은 버린다), 벌크 변경이나 삭제 표시가 많이 쌓이면 백그라운드에서 전체 재구축한다.
+// 벌크 변경 뒤에는 재구축이 끝날 때까지 스냅샷을 쓰지 않는다 (호출한 쪽이 DB 로 조회).
+@Slf4j
+@Component
+public class MemberColumnarSnapshot implements DisposableBean {
+
+  private static final int NO_TEAM = -1;
+  private static final int DELETED = -2;
+  private static final int BLOCK = 1 << 16;
+
+  public enum Source {
+    DATABASE, SNAPSHOT
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean enabled;
+  private final double maxDeletedRatio;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private Columns columns = new Columns(16, false); // lock 으로 보호
+  private boolean rebuilding; // lock(write) 으로 보호
+  private final Queue<ColumnChange> changesDuringRebuild = new ArrayDeque<>(); // lock(write) 으로 보호
+  private final Object rebuildLock = new Object();
+  private final BulkGeneration bulkChanges = new BulkGeneration(); // 재구축이 시작된 뒤 벌크 변경이 실행/커밋됐는지 보는 용도
+  private final DebouncedRebuild backgroundRebuild;
+
+  public MemberColumnarSnapshot(JdbcTemplate jdbcTemplate,
+      @Value("${member.search.columnar.enabled:false}") boolean enabled,
+      @Value("${member.search.columnar.max-deleted-ratio:0.2}") double maxDeletedRatio,
+      @Value("${member.search.rebuild.quiet-period:2s}") Duration quietPeriod,
+      @Value("${member.search.rebuild.max-delay:60s}") Duration maxDelay) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.enabled = enabled;
+    this.maxDeletedRatio = maxDeletedRatio;
+    this.backgroundRebuild = new DebouncedRebuild("member-columnar", this::rebuild, quietPeriod, maxDelay);
+  }
+
+  // 꺼져 있거나 첫 재구축 전이면 호출한 쪽이 DB 로 조회한다
+  public boolean isReady() {
+    return enabled && bulkChanges.isReady();
+  }
+
+  public List<MemberTeamDto> search(MemberSearchCondition condition) {
+    lock.readLock().lock();
+    try {
+      Columns current = columns;
+      Filter filter = current.filter(condition);
+      if (filter == null) {
+        return List.of();
+      }
+      // 블록 순서대로 이어 붙이므로 결과는 id 순
+      return IntStream.range(0, current.blocks())
+          .parallel()
+          .mapToObj(block -> current.collect(block, filter))
+          .flatMap(List::stream)
+          .toList();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public long count(MemberSearchCondition condition) {
+    lock.readLock().lock();
+    try {
+      Columns current = columns;
+      Filter filter = current.filter(condition);
+      if (filter == null) {
+        return 0;
+      }
+      return IntStream.range(0, current.blocks())
+          .parallel()
+          .mapToLong(block -> current.count(block, filter))
+          .sum();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public Map<String, Object> stats() {
+    lock.readLock().lock();
+    try {
+      Map<String, Object> result = new HashMap<>();
+      result.put("ready", isReady());
+      result.put("rows", columns.size);
+      result.put("deleted", columns.deleted);
+      result.put("teams", columns.teamCount);
+      result.put("columnBytes", columns.columnBytes()); // 배열 용량 기준 실제 크기 (username 바이트 포함)
+      result.put("usernameBytes", columns.arenaSize);
+      result.put("bytesPerMember", columns.size == 0 ? 0 : columns.columnBytes() / columns.size);
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildOnStartup() {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  @TransactionalEventListener
+  public void onMemberChanged(MemberChangedEvent event) {
+    Member member = event.member();
+    if (!enabled || member.getId() == null) {
+      return;
+    }
+    long id = member.getId();
+    long version = member.getVersion() == null ? 0 : member.getVersion();
+    if (event.type() == EntityChangeType.REMOVE) {
+      apply(columns -> columns.remove(id, version));
+      return;
+    }
+    Team team = member.getTeam();
+    Long teamId = team == null ? null : team.getId();
+    String teamName = team == null ? null : teamName(team);
+    String username = member.getUsername();
+    int age = member.getAge();
+    apply(columns -> columns.upsert(id, version, username, age, columns.teamCode(teamId, teamName)));
+  }
+
+  @TransactionalEventListener
+  public void onTeamChanged(TeamChangedEvent event) {
+    Team team = event.team();
+    if (!enabled || team.getId() == null || event.type() == EntityChangeType.PERSIST) {
+      return;
+    }
+    String name = event.type() == EntityChangeType.REMOVE ? null : team.getName();
+    apply(columns -> columns.renameTeam(team.getId(), name));
+  }
+
+  // 청크마다 커밋하는 벌크 작업이 청크마다 전체를 다시 읽지 않도록 재구축은 모아서 백그라운드에서 한다.
+  // 실행할 때와 커밋된 뒤 둘 다 스냅샷을 끈다 (그 사이 끝난 재구축은 커밋 전 데이터를 읽었을 수 있다)
+  @EventListener
+  public void onBulkChanged(BulkChangedEvent event) {
+    if (enabled) {
+      bulkChanges.changed(backgroundRebuild::request);
+    }
+  }
+
+  // 예약된 재구축이 끝날 때까지 기다린다 (테스트, 벤치마크 준비)
+  public boolean awaitRebuild(Duration timeout) throws InterruptedException {
+    return backgroundRebuild.awaitIdle(timeout);
+  }
+
+  @Override
+  public void destroy() {
+    backgroundRebuild.close();
+  }
+
+  // 재구축 중이면 새 스냅샷에도 다시 적용한다 (같은 변경을 두 번 적용해도 결과는 같다)
+  private void apply(ColumnChange change) {
+    boolean compact;
+    lock.writeLock().lock();
+    try {
+      change.apply(columns);
+      if (rebuilding) {
+        changesDuringRebuild.add(change);
+      }
+      compact = columns.needsCompaction(maxDeletedRatio);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (compact) {
+      backgroundRebuild.request(); // 커밋한 스레드에서 전체를 다시 읽지 않는다. 그 전까지는 삭제 표시를 건너뛰며 스캔
+    }
+  }
+
+  // member left join team 을 id 순으로 한 번 읽어 새 컬럼을 만든 뒤 교체한다.
+  // 읽기 시작한 뒤 벌크 변경이 실행되거나 커밋됐으면 교체는 하되 그 변경을 반영할 다음 재구축까지 ready 로 돌리지 않는다
+  public void rebuild() {
+    synchronized (rebuildLock) {
+      long start = System.nanoTime();
+      long bulkChangesAtStart = bulkChanges.current();
+      lock.writeLock().lock();
+      try {
+        rebuilding = true;
+        changesDuringRebuild.clear();
+      } finally {
+        lock.writeLock().unlock();
+      }
+      try {
+        Long rows = jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+        Columns fresh = new Columns((int) Math.max(16, rows == null ? 0 : rows), true);
+        jdbcTemplate.query("select m.member_id, m.version, m.username, m.age, t.team_id, t.name"
+                + " from member m left join team t on t.team_id = m.team_id order by m.member_id",
+            rs -> {
+              long teamId = rs.getLong(5);
+              Long team = rs.wasNull() ? null : teamId;
+              fresh.append(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getInt(4), fresh.teamCode(team, rs.getString(6)));
+            });
+        lock.writeLock().lock();
+        try {
+          ColumnChange change;
+          while ((change = changesDuringRebuild.poll()) != null) {
+            change.apply(fresh);
+          }
+          fresh.built();
+          columns = fresh;
+          bulkChanges.finish(bulkChangesAtStart);
+        } finally {
+          lock.writeLock().unlock();
+        }
+      } finally {
+        lock.writeLock().lock();
+        try {
+          rebuilding = false;
+          changesDuringRebuild.clear();
+        } finally {
+          lock.writeLock().unlock();
+        }
+      }
+      log.info("member columnar snapshot rebuilt: {} rows, {} bytes in {}ms",
+          columns.size, columns.columnBytes(), (System.nanoTime() - start) / 1_000_000);
+    }
+  }
+
+  // 커밋 후에 호출되므로 초기화 안 된 프록시면 DB 에서 이름만 읽는다
+  private String teamName(Team team) {
+    if (Hibernate.isInitialized(team)) {
+      return team.getName();
+    }
+    return jdbcTemplate.queryForObject("select name from team where team_id = ?", String.class, team.getId());
+  }
+
+  @FunctionalInterface
+  private interface ColumnChange {
+    void apply(Columns columns);
+  }
+
+  // 조건을 행마다 비교하기 쉬운 형태로 바꾼 것. 팀 조건은 팀 코드별 일치 여부 배열로 미리 계산하고,
+  // username 은 UTF-8 바이트로 바꿔 두고 행의 바이트와 직접 비교한다 (Columns.usernameEquals)
+  private record Filter(byte[] username, boolean[] teams, int ageGoe, int ageLoe) {
+
+    boolean test(int rowAge, int rowTeam) {
+      if (rowTeam == DELETED || rowAge < ageGoe || rowAge > ageLoe) {
+        return false;
+      }
+      return teams == null || (rowTeam != NO_TEAM && teams[rowTeam]);
+    }
+  }
+
+  private static class Columns {
+
+    private static final int MAX_INTERNED = 1 << 16; // 재구축 중 중복 제거에 쓰는 이름 수 상한 (임시 HashMap 크기 제한)
+    private static final int MAX_USERNAME_BYTES = 0x7FFF; // 길이는 1~2바이트로 저장한다
+
+    private long[] ids;
+    private long[] versions; // Member.version. 삭제된 행은 삭제 시점 version + 1 (그보다 늦게 도착한 이전 변경을 막는다)
+    private int[] ages;
+    private int[] teamCodes;
+    private int[] usernames; // usernameArena 안의 위치, null 이면 -1
+    private int size;
+    private int deleted;
+
+    // [길이 1바이트(< 0x80) 또는 2바이트(0x80 | 상위, 하위)][UTF-8 바이트] 를 이어 붙인 것.
+    // 이름 변경/삭제된 자리는 다음 재구축 때 정리된다
+    private byte[] usernameArena;
+    private int arenaSize;
+    private int builtArenaSize;
+    private Map<String, Integer> interned; // 재구축 중에만, 같은 이름은 같은 위치를 가리킨다
+
+    // 팀 사전: 코드 -> team id / 이름 (이름이 null 이면 삭제된 팀 -> 팀 없음으로 본다)
+    private long[] teamIds = new long[16];
+    private String[] teamNames = new String[16];
+    private int teamCount;
+    private final Map<Long, Integer> teamCodeById = new HashMap<>();
+
+    Columns(int capacity, boolean intern) {
+      ids = new long[capacity];
+      versions = new long[capacity];
+      ages = new int[capacity];
+      teamCodes = new int[capacity];
+      usernames = new int[capacity];
+      usernameArena = new byte[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(64L, capacity * 8L))];
+      interned = intern ? new HashMap<>() : null;
+    }
+
+    // 재구축이 끝나면 중복 제거용 맵을 버리고 arena 를 쓴 만큼(+ 이후 변경용 여유 1/8)으로 줄인다. 이후 변경은 arena 끝에 붙인다
+    void built() {
+      interned = null;
+      builtArenaSize = arenaSize;
+      int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(64L, arenaSize + (arenaSize >> 3)));
+      if (capacity < usernameArena.length) {
+        usernameArena = Arrays.copyOf(usernameArena, capacity);
+      }
+    }
+
+    int blocks() {
+      return (size + BLOCK - 1) / BLOCK;
+    }
+
+    // 삭제 표시나 재구축 뒤 arena 에 붙인 바이트(새 회원, 이름 변경)가 많이 쌓이면 다시 만든다
+    boolean needsCompaction(double maxRatio) {
+      return size > BLOCK
+          && (deleted > size * maxRatio || arenaSize - builtArenaSize > builtArenaSize * maxRatio);
+    }
+
+    Filter filter(MemberSearchCondition condition) {
+      byte[] username = StringUtils.hasText(condition.getUsername())
+          ? condition.getUsername().trim().getBytes(StandardCharsets.UTF_8)
+          : null;
+      boolean[] teams = null;
+      if (StringUtils.hasText(condition.getTeamName())) {
+        String teamName = condition.getTeamName().trim();
+        teams = new boolean[teamCount];
+        boolean any = false;
+        for (int code = 0; code < teamCount; code++) {
+          teams[code] = teamName.equals(teamNames[code]);
+          any |= teams[code];
+        }
+        if (!any) {
+          return null;
+        }
+      }
+      int ageGoe = condition.getAgeGoe() == null ? Integer.MIN_VALUE : condition.getAgeGoe();
+      int ageLoe = condition.getAgeLoe() == null ? Integer.MAX_VALUE : condition.getAgeLoe();
+      return new Filter(username, teams, ageGoe, ageLoe);
+    }
+
+    long count(int block, Filter filter) {
+      int from = block * BLOCK;
+      int to = Math.min(size, from + BLOCK);
+      long count = 0;
+      for (int row = from; row < to; row++) {
+        if (matches(row, filter)) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    List<MemberTeamDto> collect(int block, Filter filter) {
+      int from = block * BLOCK;
+      int to = Math.min(size, from + BLOCK);
+      List<MemberTeamDto> result = new ArrayList<>();
+      for (int row = from; row < to; row++) {
+        if (matches(row, filter)) {
+          int team = teamCodes[row];
+          boolean hasTeam = team >= 0 && teamNames[team] != null;
+          result.add(new MemberTeamDto(ids[row], username(row), ages[row],
+              hasTeam ? teamIds[team] : null, hasTeam ? teamNames[team] : null));
+        }
+      }
+      return result;
+    }
+
+    private boolean matches(int row, Filter filter) {
+      return filter.test(ages[row], teamCodes[row])
+          && (filter.username() == null || usernameEquals(row, filter.username()));
+    }
+
+    // 길이가 다르면 바로 걸러지고, 같으면 바이트 범위 비교 (Arrays.equals 는 벡터화된다)
+    private boolean usernameEquals(int row, byte[] expected) {
+      int offset = usernames[row];
+      if (offset < 0) {
+        return false;
+      }
+      int header = headerLength(offset);
+      int length = usernameLength(offset);
+      int start = offset + header;
+      return length == expected.length
+          && Arrays.equals(usernameArena, start, start + length, expected, 0, length);
+    }
+
+    private String username(int row) {
+      int offset = usernames[row];
+      if (offset < 0) {
+        return null;
+      }
+      return new String(usernameArena, offset + headerLength(offset), usernameLength(offset), StandardCharsets.UTF_8);
+    }
+
+    private int headerLength(int offset) {
+      return usernameArena[offset] >= 0 ? 1 : 2;
+    }
+
+    private int usernameLength(int offset) {
+      byte first = usernameArena[offset];
+      return first >= 0 ? first : ((first & 0x7F) << 8) | (usernameArena[offset + 1] & 0xFF);
+    }
+
+    private int storeUsername(String username) {
+      if (username == null) {
+        return -1;
+      }
+      if (interned != null) {
+        Integer offset = interned.get(username);
+        if (offset != null) {
+          return offset;
+        }
+      }
+      byte[] bytes = username.getBytes(StandardCharsets.UTF_8);
+      if (bytes.length > MAX_USERNAME_BYTES) {
+        throw new IllegalStateException("username 이 너무 깁니다: " + bytes.length + " bytes");
+      }
+      int header = bytes.length < 0x80 ? 1 : 2;
+      ensureArenaCapacity(header + bytes.length);
+      int offset = arenaSize;
+      if (header == 1) {
+        usernameArena[offset] = (byte) bytes.length;
+      } else {
+        usernameArena[offset] = (byte) (0x80 | (bytes.length >>> 8));
+        usernameArena[offset + 1] = (byte) bytes.length;
+      }
+      System.arraycopy(bytes, 0, usernameArena, offset + header, bytes.length);
+      arenaSize += header + bytes.length;
+      if (interned != null && interned.size() < MAX_INTERNED) {
+        interned.put(username, offset);
+      }
+      return offset;
+    }
+
+    int teamCode(Long teamId, String teamName) {
+      if (teamId == null) {
+        return NO_TEAM;
+      }
+      Integer code = teamCodeById.get(teamId);
+      if (code != null) {
+        teamNames[code] = teamName;
+        return code;
+      }
+      if (teamCount == teamIds.length) {
+        teamIds = Arrays.copyOf(teamIds, teamCount * 2);
+        teamNames = Arrays.copyOf(teamNames, teamCount * 2);
+      }
+      teamIds[teamCount] = teamId;
+      teamNames[teamCount] = teamName;
+      teamCodeById.put(teamId, teamCount);
+      return teamCount++;
+    }
+
+    void renameTeam(long teamId, String name) {
+      Integer code = teamCodeById.get(teamId);
+      if (code != null) {
+        teamNames[code] = name;
+      }
+    }
+
+    // 재구축 시 id 순으로 넣는다
+    void append(long id, long version, String username, int age, int teamCode) {
+      ensureCapacity();
+      ids[size] = id;
+      versions[size] = version;
+      usernames[size] = storeUsername(username);
+      ages[size] = age;
+      teamCodes[size] = teamCode;
+      size++;
+    }
+
+    // 시퀀스 id 는 대부분 끝에 붙는다. 커밋 순서가 뒤바뀐 경우만 뒤쪽 몇 칸을 민다.
+    // 이미 더 높은 version 이 반영된 행이면 늦게 도착한 이전 변경이므로 버린다 (같은 version 은 같은 변경의 재적용)
+    void upsert(long id, long version, String username, int age, int teamCode) {
+      int row = Arrays.binarySearch(ids, 0, size, id);
+      if (row < 0) {
+        row = insertRow(-(row + 1), id);
+        usernames[row] = storeUsername(username);
+      } else {
+        if (versions[row] > version) {
+          return;
+        }
+        if (teamCodes[row] == DELETED) {
+          deleted--;
+          usernames[row] = storeUsername(username);
+        } else if (!sameUsername(row, username)) {
+          usernames[row] = storeUsername(username);
+        }
+      }
+      versions[row] = version;
+      ages[row] = age;
+      teamCodes[row] = teamCode;
+    }
+
+    private int insertRow(int row, long id) {
+      ensureCapacity();
+      int tail = size - row;
+      System.arraycopy(ids, row, ids, row + 1, tail);
+      System.arraycopy(versions, row, versions, row + 1, tail);
+      System.arraycopy(usernames, row, usernames, row + 1, tail);
+      System.arraycopy(ages, row, ages, row + 1, tail);
+      System.arraycopy(teamCodes, row, teamCodes, row + 1, tail);
+      size++;
+      ids[row] = id;
+      return row;
+    }
+
+    // 나이/팀만 바뀐 update 는 arena 에 다시 붙이지 않는다
+    private boolean sameUsername(int row, String username) {
+      if (username == null || usernames[row] < 0) {
+        return username == null && usernames[row] < 0;
+      }
+      return usernameEquals(row, username.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 삭제는 같은 version 의 update 보다 나중이다. 행이 아직 없으면(insert 콜백이 늦게 옴) 삭제 표시만 넣어 둔다
+    void remove(long id, long version) {
+      int row = Arrays.binarySearch(ids, 0, size, id);
+      if (row < 0) {
+        row = insertRow(-(row + 1), id);
+      } else if (teamCodes[row] == DELETED || versions[row] > version) {
+        return;
+      }
+      versions[row] = version + 1;
+      teamCodes[row] = DELETED;
+      usernames[row] = -1;
+      deleted++;
+    }
+
+    // 배열 용량 기준 (배열 헤더, 팀 사전 제외)
+    long columnBytes() {
+      return (long) ids.length * (Long.BYTES * 2 + Integer.BYTES * 3) + usernameArena.length;
+    }
+
+    private void ensureCapacity() {
+      if (size == ids.length) {
+        int capacity = Math.max(16, size + (size >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        teamCodes = Arrays.copyOf(teamCodes, capacity);
+        usernames = Arrays.copyOf(usernames, capacity);
+      }
+    }
+
+    // 위치가 int 이므로 arena 는 2GB 를 넘을 수 없다
+    private void ensureArenaCapacity(int bytes) {
+      long required = (long) arenaSize + bytes;
+      if (required <= usernameArena.length) {
+        return;
+      }
+      long capacity = Math.max(required, usernameArena.length + ((long) usernameArena.length >> 1));
+      if (required > Integer.MAX_VALUE - 8) {
+        throw new IllegalStateException("username arena 가 2GB 를 넘습니다");
+      }
+      usernameArena = Arrays.copyOf(usernameArena, (int) Math.min(capacity, Integer.MAX_VALUE - 8));
+    }
+  }
+}
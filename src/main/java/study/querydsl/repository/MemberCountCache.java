@@ -0,0 +1,63 @@
+package study.querydsl.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.BulkGeneration;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+
+// 페이지 이동마다 같은 조건으로 count 쿼리를 다시 날리지 않도록 total 을 잠깐 보관
+@Component
+public class MemberCountCache {
+
+  private final boolean enabled;
+  private final Cache<MemberSearchKey, Long> cache;
+  private final BulkGeneration changes = new BulkGeneration(); // 회원/팀 변경 세대
+
+  public MemberCountCache(
+      @Value("${member.search.count-cache.enabled:true}") boolean enabled,
+      @Value("${member.search.count-cache.ttl:30s}") Duration ttl,
+      @Value("${member.search.count-cache.max-size:1000}") long maxSize) {
+    this.enabled = enabled;
+    this.cache = Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .maximumSize(maxSize)
+        .build();
+  }
+
+  public long get(MemberSearchCondition condition, Supplier<Long> countQuery) {
+    if (!enabled || !ReadOnlyContext.isCacheable()) {
+      return countQuery.get();
+    }
+    MemberSearchKey key = MemberSearchKey.of(condition);
+    Long cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    // 세는 동안 변경이 실행/커밋되면 변경 전 건수일 수 있으므로 보관하지 않는다 (MemberSearchCache 와 같은 방식)
+    long generation = changes.current();
+    long total = countQuery.get();
+    if (changes.current() == generation) {
+      cache.put(key, total);
+      if (changes.current() != generation) {
+        cache.invalidate(key);
+      }
+    }
+    return total;
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @EventListener({MemberChangedEvent.class, TeamChangedEvent.class, BulkChangedEvent.class})
+  public void onChange() {
+    changes.changed(this::invalidateAll);
+  }
+}
@@ -0,0 +1,40 @@
+package study.querydsl.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberTeamDto;
+
+// 키셋(seek) 페이징 커서: 정렬키(age) + member.id 를 불투명한 문자열로 인코딩
+@Getter
+@RequiredArgsConstructor
+public class MemberCursor {
+
+  private final int age;
+  private final long memberId;
+
+  public static MemberCursor of(MemberTeamDto last) {
+    return new MemberCursor(last.getAge(), last.getMemberId());
+  }
+
+  // 커서가 없으면 첫 페이지(null)
+  public static MemberCursor decode(String cursor) {
+    if (!StringUtils.hasText(cursor)) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = raw.split(":");
+      return new MemberCursor(Integer.parseInt(parts[0]), Long.parseLong(parts[1]));
+    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+      throw new InvalidSearchRequestException("잘못된 커서 값입니다: " + cursor, e);
+    }
+  }
+
+  public String encode() {
+    String raw = age + ":" + memberId;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -8,10 +8,16 @@ import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberDto;
@@ -24,6 +30,13 @@ import study.querydsl.entity.QMember;
 public class MemberJpaRepository {
   private final EntityManager em;
   private final JPAQueryFactory queryFactory;
+  private final MemberQueryMetrics metrics;
+  private final MemberSearchTemplates templates;
+  private final UsernameBloomFilter usernameBloomFilter;
+  private final MemberNearCache nearCache;
+
+  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1000}")
+  private int batchSize;
 
 //  public MemberJpaRepository(EntityManager em) {
 //    this.em = em;
@@ -31,38 +44,68 @@ public class MemberJpaRepository {
 //  }
 
   public void save(Member member){
-    em.persist(member);
+    metrics.run("save", () -> em.persist(member));
+  }
+
+  // 대량 저장: JDBC batch 크기마다 flush 하고 방금 저장한 엔티티만 detach 해서 영속성 컨텍스트가 계속 커지지 않게 한다.
+  // 트랜잭션 안에서 호출해야 하며, 호출 후 전달한 엔티티들은 준영속 상태가 된다 (호출 전에 조회해 둔 다른 엔티티는 그대로 영속)
+  public void saveAll(Collection<Member> members) {
+    metrics.run("saveAll", () -> persistInBatches(members));
+  }
+
+  private void persistInBatches(Collection<Member> members) {
+    List<Member> pending = new ArrayList<>();
+    for (Member member : members) {
+      em.persist(member);
+      pending.add(member);
+      // batch_size=0 (JDBC batch 끔) 이면 마지막에 한 번만 flush/detach
+      if (batchSize > 0 && pending.size() == batchSize) {
+        flushAndDetach(pending);
+      }
+    }
+    flushAndDetach(pending);
+  }
+
+  // em.clear() 는 호출한 쪽이 들고 있는 엔티티까지 준영속으로 만들므로 쓰지 않는다
+  private void flushAndDetach(List<Member> pending) {
+    em.flush();
+    pending.forEach(em::detach);
+    pending.clear();
   }
 
   public Optional<Member> findById(Long id ){
-    Member findMember = em.find(Member.class,id);
+    // 트랜잭션 밖/readOnly 에서 캐시에 있으면 준영속 복사본 (MemberNearCache)
+    Member findMember = nearCache.get(id, () -> metrics.record("findById", () -> em.find(Member.class, id)));
     return Optional.ofNullable(findMember);
   }
 
   public List<Member> findAll() {
-    return em.createQuery("select m from Member m", Member.class)
-        .getResultList();
+    return metrics.record("findAll", () -> em.createQuery("select m from Member m", Member.class)
+        .getResultList());
   }
 
   public List<Member> findAll_Querydsl(){
-    return queryFactory
+    return metrics.record("findAll_Querydsl", () -> queryFactory
         .selectFrom(member) // 스태틱 임포트 가능
-        .fetch();
+        .fetch());
   }
 
+  // 없는 username 은 블룸 필터에서 걸러 DB 를 거치지 않는다 (UsernameBloomFilter)
   public List<Member> findByUsername(String username) {
-    return em.createQuery("select m from Member m where m.username = :username", Member.class)
-        .setParameter("username", username)
-        .getResultList();
+    return usernameBloomFilter.findOrSkip(username, () -> metrics.record("findByUsername",
+        () -> em.createQuery("select m from Member m where m.username = :username", Member.class)
+            .setParameter("username", username)
+            .getResultList()));
   }
 
   public List<Member> findByUsername_Querydsl(String username) {
-    return queryFactory
+    return usernameBloomFilter.findOrSkip(username, () -> metrics.record("findByUsername_Querydsl", () -> queryFactory
         .selectFrom(member)
         .where(member.username.eq(username))
-        .fetch();
+        .fetch()));
   }
 
+  @Transactional(readOnly = true)
   public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition){
     BooleanBuilder builder = new BooleanBuilder();
     if (StringUtils.hasText(condition.getUsername())) {
@@ -80,7 +123,7 @@ public class MemberJpaRepository {
       builder.and(member.age.loe(condition.getAgeLoe()));  // loe()는 이하
     }
 
-      return queryFactory
+      return metrics.record("searchByBuilder", condition, () -> queryFactory
         .select(new QMemberTeamDto(
             member.id,
             member.username,
@@ -90,10 +133,17 @@ public class MemberJpaRepository {
         .from(member)
         .leftJoin(member.team, team)
         .where(builder)
-        .fetch();
+        .fetch());
   }
 
+  @Transactional(readOnly = true)
   public List<MemberTeamDto> search(MemberSearchCondition condition) {
+    return metrics.record("search", condition, () -> templates.fetch(condition));
+  }
+
+  // 전체 결과를 List 로 만들지 않고 forward-only 커서로 한 건씩 흘려보낸다.
+  // 트랜잭션 안에서 호출하고 반드시 close 해야 한다. (try-with-resources)
+  public Stream<MemberTeamDto> stream(MemberSearchCondition condition, int fetchSize) {
     return queryFactory
         .select(new QMemberTeamDto(
             member.id,
@@ -108,7 +158,10 @@ public class MemberJpaRepository {
             teamNameEq(condition.getTeamName()),
             ageGoe(condition.getAgeGoe()),
             ageLoe(condition.getAgeLoe()))
-        .fetch();
+        .orderBy(member.id.asc())
+        .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+        .setHint(AvailableHints.HINT_READ_ONLY, true)
+        .stream();
   }
 
   private BooleanExpression usernameEq(String username) {
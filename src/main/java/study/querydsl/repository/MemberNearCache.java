@@ -0,0 +1,157 @@
+package study.querydsl.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.BulkGeneration;
+import study.querydsl.event.EntityChangeType;
+import study.querydsl.event.MemberChangedEvent;
+
+// id 로 조회한 Member 의 스냅샷 캐시 (findById). Caffeine 의 W-TinyLFU 라서 자주 조회되는 회원이 한 번 조회되는 회원에 밀려나지 않는다.
+// 히트하면 스냅샷으로 만든 준영속 복사본을 돌려주므로 트랜잭션이 없거나 readOnly 일 때만 쓴다.
+// 무효화: 엔티티 update/remove 는 flush 시점에 쓴 version 의 tombstone 으로 바꾼다. tombstone 은 조회 시 miss 이고,
+// 커밋 전에 이전 버전을 읽은 스레드가 나중에 넣으려 해도 version 이 낮으면 버린다 (롤백되면 tombstone 을 지운다).
+// 벌크 update/delete 는 version 을 올리지 않으므로 실행할 때와 커밋된 뒤 전체를 비우고, 그 사이 세대가 바뀐 조회 결과는 넣지 않는다.
+@Component
+public class MemberNearCache {
+
+  private final boolean enabled;
+  private final EntityManager em;
+  private final Cache<Long, Snapshot> cache;
+  private final StatsCounter stats = new ConcurrentStatsCounter(); // tombstone 은 miss 로 센다
+  private final BulkGeneration bulkChanges = new BulkGeneration();
+
+  public MemberNearCache(EntityManager em,
+      @Value("${member.near-cache.enabled:true}") boolean enabled,
+      @Value("${member.near-cache.max-size:10000}") long maxSize,
+      @Value("${member.near-cache.ttl:5m}") Duration ttl,
+      MeterRegistry registry) {
+    this.em = em;
+    this.enabled = enabled;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats(() -> stats)
+        .build();
+    CaffeineCacheMetrics.monitor(registry, cache, "member.near"); // cache.gets{result=hit|miss}, cache.evictions 등
+  }
+
+  public Member get(Long id, Supplier<Member> loader) {
+    if (!enabled || id == null || !ReadOnlyContext.isCacheable()) {
+      return loader.get();
+    }
+    Snapshot cached = cache.asMap().get(id);
+    if (cached != null && !cached.tombstone()) {
+      stats.recordHits(1);
+      return cached.toMember(em);
+    }
+    stats.recordMisses(1);
+    long generation = bulkChanges.current();
+    Member loaded = loader.get();
+    if (loaded != null && bulkChanges.current() == generation) {
+      Snapshot snapshot = Snapshot.of(loaded);
+      cache.asMap().merge(id, snapshot, MemberNearCache::newer);
+      // 확인과 merge 사이에 벌크 변경이 커밋되어 invalidateAll 이 먼저 지나갔을 수 있다
+      if (bulkChanges.current() != generation) {
+        cache.asMap().remove(id, snapshot);
+      }
+    }
+    return loaded;
+  }
+
+  @EventListener
+  public void onMemberChanged(MemberChangedEvent event) {
+    Long id = event.member().getId();
+    if (id == null || event.type() == EntityChangeType.PERSIST) {
+      return;
+    }
+    long written = event.type() == EntityChangeType.REMOVE ? Long.MAX_VALUE : versionOf(event.member().getVersion());
+    Snapshot tombstone = Snapshot.tombstone(id, written);
+    cache.asMap().merge(id, tombstone, MemberNearCache::newer);
+    afterRollback(() -> cache.asMap().remove(id, tombstone));
+  }
+
+  @EventListener
+  public void onBulkChanged(BulkChangedEvent event) {
+    if (!"member".equalsIgnoreCase(event.table())) {
+      return;
+    }
+    bulkChanges.changed(cache::invalidateAll);
+    cache.invalidateAll();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.estimatedSize();
+  }
+
+  // version 이 높은 쪽. 같으면 실제 스냅샷이 tombstone 을 대신한다 (커밋된 그 version 을 읽은 것)
+  private static Snapshot newer(Snapshot previous, Snapshot next) {
+    long previousVersion = versionOf(previous);
+    long nextVersion = versionOf(next);
+    if (nextVersion > previousVersion) {
+      return next;
+    }
+    return nextVersion == previousVersion && previous.tombstone() && !next.tombstone() ? next : previous;
+  }
+
+  private static void afterRollback(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status == STATUS_ROLLED_BACK) {
+          action.run();
+        }
+      }
+    });
+  }
+
+  private static long versionOf(Snapshot snapshot) {
+    return versionOf(snapshot.version());
+  }
+
+  private static long versionOf(Long version) {
+    return version == null ? -1 : version;
+  }
+
+  // 팀은 id 만 두고, 꺼낼 때 현재 영속성 컨텍스트의 참조(프록시)로 붙인다 (em.find 결과와 같은 지연 로딩)
+  record Snapshot(Long id, String username, int age, Long teamId, Long version, boolean tombstone) {
+
+    static Snapshot of(Member member) {
+      Team team = member.getTeam();
+      return new Snapshot(member.getId(), member.getUsername(), member.getAge(),
+          team == null ? null : team.getId(), member.getVersion(), false);
+    }
+
+    // 이 version 이 쓰였다는 표시 (조회 시 miss)
+    static Snapshot tombstone(Long id, long version) {
+      return new Snapshot(id, null, 0, null, version, true);
+    }
+
+    Member toMember(EntityManager em) {
+      Team team = teamId == null ? null : em.getReference(Team.class, teamId);
+      return Member.detached(id, username, age, team, version);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+// 리포지토리 쿼리별 실행 시간 (member.query 타이머)
+// 태그: query = 메서드(쿼리) 이름, shape = 값이 들어온 검색 조건 필드 조합 (값 자체는 태그로 쓰지 않는다)
+@Component
+@RequiredArgsConstructor
+public class MemberQueryMetrics {
+
+  private static final String NONE = "none";
+
+  private final MeterRegistry registry;
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  public <T> T record(String query, Supplier<T> supplier) {
+    return timer(query, NONE).record(supplier);
+  }
+
+  public <T> T record(String query, MemberSearchCondition condition, Supplier<T> supplier) {
+    return timer(query, shape(condition)).record(supplier);
+  }
+
+  public void run(String query, Runnable runnable) {
+    timer(query, NONE).record(runnable);
+  }
+
+  private Timer timer(String query, String shape) {
+    return timers.computeIfAbsent(query + "|" + shape, key -> Timer.builder("member.query")
+        .tag("query", query)
+        .tag("shape", shape)
+        .register(registry));
+  }
+
+  // 예) username+ageGoe, 조건이 하나도 없으면 none -> 최대 16가지
+  static String shape(MemberSearchCondition condition) {
+    StringBuilder sb = new StringBuilder();
+    append(sb, StringUtils.hasText(condition.getUsername()), "username");
+    append(sb, StringUtils.hasText(condition.getTeamName()), "teamName");
+    append(sb, condition.getAgeGoe() != null, "ageGoe");
+    append(sb, condition.getAgeLoe() != null, "ageLoe");
+    return sb.length() == 0 ? NONE : sb.toString();
+  }
+
+  private static void append(StringBuilder sb, boolean set, String field) {
+    if (!set) {
+      return;
+    }
+    if (sb.length() > 0) {
+      sb.append('+');
+    }
+    sb.append(field);
+  }
+}
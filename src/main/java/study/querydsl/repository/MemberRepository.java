@@ -15,5 +15,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>,MemberRepo
   @Query("select m from Member m join m.team t where t.name = :name")
   List<Member> findMemberJoinTeam(@Param("name") String name);
 
+  // MemberRepositoryCustom 에도 선언되어 있어서 파생 쿼리 대신 MemberRepositoryImpl 구현(블룸 필터 + Querydsl)이 호출된다
+  @Override
   List<Member> findByUsername(String username);
 }
@@ -3,11 +3,27 @@ package study.querydsl.repository;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.CursorPage;
+import study.querydsl.dto.MemberFacets;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberColumnarSnapshot.Source;
+import study.querydsl.repository.UsernameNgramIndex.Match;
 
 public interface MemberRepositoryCustom {
+  List<Member> findByUsername(String username);
   List<MemberTeamDto> search(MemberSearchCondition condition);
+  // source = SNAPSHOT 이면 컬럼형 메모리 스냅샷(MemberColumnarSnapshot)을 병렬 스캔, 못 쓰는 상황이면 DB
+  List<MemberTeamDto> search(MemberSearchCondition condition, Source source);
+  long searchCount(MemberSearchCondition condition, Source source);
   Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
   Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+  Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+  CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, int size);
+  List<MemberTeamDto> searchByUsername(Match match, String text, MemberSearchCondition condition, int limit);
+  List<String> autocompleteUsername(String prefix, int limit);
+  MemberFacets searchFacets(MemberSearchCondition condition);
+  Page<MemberTeamDto> searchReadModel(MemberSearchCondition condition, Pageable pageable);
 
 }
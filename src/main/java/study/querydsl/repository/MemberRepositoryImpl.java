@@ -1,31 +1,141 @@
 package study.querydsl.repository;
 
 import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QMemberSearch.memberSearch;
 import static study.querydsl.entity.QTeam.team;
 
-import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
+import study.querydsl.dto.CursorPage;
+import study.querydsl.dto.MemberFacets;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberColumnarSnapshot.Source;
+import study.querydsl.repository.UsernameNgramIndex.Match;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
+  // 커서 페이지 / username 검색이 한 번에 읽는 최대 건수 (size + 1 이 넘치거나 테이블 전체를 읽지 않도록)
+  static final int MAX_PAGE_SIZE = 1000;
+
   private final JPAQueryFactory queryFactory;
+  private final MemberCountCache countCache;
+  private final MemberSearchCache searchCache;
+  private final MemberQueryMetrics metrics;
+  private final ParallelQueryExecutor parallelQueries;
+  private final MemberSearchTemplates templates;
+  private final UsernameNgramIndex usernameIndex;
+  private final UsernameBloomFilter usernameBloomFilter;
+  private final MemberColumnarSnapshot columnarSnapshot;
+  private final MemberSearchProjection searchProjection;
+
+  // 없는 username 은 블룸 필터에서 걸러 DB 를 거치지 않는다
+  @Override
+  public List<Member> findByUsername(String username) {
+    return usernameBloomFilter.findOrSkip(username, () -> metrics.record("findByUsername", () -> queryFactory
+        .selectFrom(member)
+        .where(member.username.eq(username))
+        .fetch()));
+  }
 
   @Override
+  @Transactional(readOnly = true)
   public List<MemberTeamDto> search(MemberSearchCondition condition) {
-    return queryFactory
+    return searchCache.get("search", condition, null, () -> metrics.record("search", condition,
+        () -> List.copyOf(templates.fetch(condition))));
+  }
+
+  // 스냅샷은 커밋된 변경만 반영하므로 쓰기 트랜잭션 안에서는 DB 를 본다
+  @Override
+  @Transactional(readOnly = true)
+  public List<MemberTeamDto> search(MemberSearchCondition condition, Source source) {
+    if (useSnapshot(source)) {
+      return metrics.record("search.snapshot", condition, () -> columnarSnapshot.search(condition));
+    }
+    return search(condition);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public long searchCount(MemberSearchCondition condition, Source source) {
+    if (useSnapshot(source)) {
+      return metrics.record("searchCount.snapshot", condition, () -> columnarSnapshot.count(condition));
+    }
+    return countCache.get(condition, () -> metrics.record("searchCount", condition, () -> templates.count(condition)));
+  }
+
+  private boolean useSnapshot(Source source) {
+    return source == Source.SNAPSHOT && columnarSnapshot.isReady() && ReadOnlyContext.isCacheable();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+    return searchCache.get("searchPageSimple", condition, pageable,
+        () -> fetchPageSimple(condition, pageable));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+    return searchCache.get("searchPageComplex", condition, pageable,
+        () -> fetchPageComplex(condition, pageable));
+  }
+
+  private Page<MemberTeamDto> fetchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+    // fetchResults 와 같이 count 를 먼저 하고, 결과가 없으면 content 쿼리는 생략
+    return metrics.record("searchPageSimple", condition, () -> {
+      long total = templates.count(condition);
+      List<MemberTeamDto> content = total > 0 ? templates.fetch(condition, pageable) : List.of();
+      return new PageImpl<>(content, pageable, total);
+    });
+  }
+
+  private Page<MemberTeamDto> fetchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+    // 병렬 모드: count 는 다른 스레드/커넥션에서, content 는 현재 스레드에서 동시에 실행
+    // 쓰기 트랜잭션 안이면 다른 커넥션에서 아직 커밋 안 된 데이터가 안 보이므로 순차 실행
+    CompletableFuture<Long> total = parallelQueries.isEnabled() && ReadOnlyContext.isCacheable()
+        ? parallelQueries.trySubmit(factory -> countCache.get(condition,
+            () -> metrics.record("searchPageComplex.count", condition, () -> countQuery(factory, condition).fetchOne())))
+        : null;
+
+    List<MemberTeamDto> content = metrics.record("searchPageComplex.content", condition,
+        () -> templates.fetch(condition, pageable));
+
+    if (total != null) {
+      return new PageImpl<>(content, pageable, ParallelQueryExecutor.join(total));
+    }
+
+    return PageableExecutionUtils.getPage(content, pageable,
+        () -> countCache.get(condition,
+            () -> metrics.record("searchPageComplex.count", condition, () -> templates.count(condition))));
+  }
+
+  // count 쿼리 없이 pageSize + 1 건만 조회해서 다음 페이지 존재 여부만 판단 (무한 스크롤용)
+  @Override
+  @Transactional(readOnly = true)
+  public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+    List<MemberTeamDto> content = metrics.record("searchSlice", condition, () -> queryFactory
         .select(new QMemberTeamDto(
             member.id,
             member.username,
@@ -39,12 +149,27 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
             teamNameEq(condition.getTeamName()),
             ageGoe(condition.getAgeGoe()),
             ageLoe(condition.getAgeLoe()))
-        .fetch();
+        .offset(pageable.getOffset())
+        .limit(pageable.getPageSize() + 1)
+        .fetch());
+
+    boolean hasNext = content.size() > pageable.getPageSize();
+    if (hasNext) {
+      content = content.subList(0, pageable.getPageSize());
+    }
+    return new SliceImpl<>(content, pageable, hasNext);
   }
 
+  // offset 대신 (age, member.id) 키셋으로 탐색 -> 깊은 페이지도 첫 페이지와 같은 비용
   @Override
-  public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-    QueryResults<MemberTeamDto> results = queryFactory
+  @Transactional(readOnly = true)
+  public CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, int size) {
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new InvalidSearchRequestException("size는 1 이상 " + MAX_PAGE_SIZE + " 이하여야 합니다: " + size);
+    }
+    MemberCursor after = MemberCursor.decode(cursor);
+
+    List<MemberTeamDto> content = metrics.record("searchByCursor", condition, () -> queryFactory
         .select(new QMemberTeamDto(
             member.id,
             member.username,
@@ -57,20 +182,40 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
             usernameEq(condition.getUsername()),
             teamNameEq(condition.getTeamName()),
             ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe()))
-        .offset(pageable.getOffset())
-        .limit(pageable.getPageSize())
-        .fetchResults();
+            ageLoe(condition.getAgeLoe()),
+            cursorAfter(after))
+        .orderBy(member.age.asc(), member.id.asc())
+        .limit(size + 1) // 한 건 더 조회해서 다음 페이지 존재 여부 확인
+        .fetch());
 
-    List<MemberTeamDto> content = results.getResults();
-    long total = results.getTotal();
+    boolean hasNext = content.size() > size;
+    if (hasNext) {
+      content = content.subList(0, size);
+    }
+    String nextCursor = hasNext ? MemberCursor.of(content.get(size - 1)).encode() : null;
 
-    return new PageImpl<>(content,pageable,total);
+    return new CursorPage<>(content, nextCursor, hasNext);
   }
 
+  // username 부분 일치/접두어 + 나머지 조건. 인덱스로 후보 id 를 좁힌 뒤 DB 에서 팀/나이 조건과 함께 조회한다.
+  // 인덱스는 후보를 좁히기만 하고 username 조건은 DB 에서 다시 확인한다 (인덱스가 늦게 따라와도 틀린 결과는 나가지 않음).
+  // 인덱스를 못 쓰는 경우(준비 전, 쓰기 트랜잭션 안, 후보가 너무 많음)는 DB like 로만 찾는다.
   @Override
-  public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-    List<MemberTeamDto> content = queryFactory
+  @Transactional(readOnly = true)
+  public List<MemberTeamDto> searchByUsername(Match match, String text, MemberSearchCondition condition, int limit) {
+    if (!StringUtils.hasText(text)) {
+      throw new InvalidSearchRequestException("검색어가 비어 있습니다");
+    }
+    checkLimit(limit);
+    String keyword = text.trim();
+    Collection<Long> ids = usernameIndex.isReady() && ReadOnlyContext.isCacheable()
+        ? usernameIndex.find(match, keyword)
+        : null;
+    if (ids != null && ids.isEmpty()) {
+      return List.of();
+    }
+
+    return metrics.record(ids != null ? "searchByUsername.index" : "searchByUsername.like", condition, () -> queryFactory
         .select(new QMemberTeamDto(
             member.id,
             member.username,
@@ -80,38 +225,140 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
         .from(member)
         .leftJoin(member.team, team)
         .where(
+            ids != null ? member.id.in(ids) : null,
+            usernameMatches(match, keyword),
             usernameEq(condition.getUsername()),
             teamNameEq(condition.getTeamName()),
             ageGoe(condition.getAgeGoe()),
             ageLoe(condition.getAgeLoe()))
-        .offset(pageable.getOffset())
-        .limit(pageable.getPageSize())
-        .fetch();
+        .orderBy(member.id.asc())
+        .limit(limit)
+        .fetch());
+  }
 
-    JPAQuery<Member> countQuery = queryFactory
-        .select(member)
+  @Override
+  @Transactional(readOnly = true)
+  public List<String> autocompleteUsername(String prefix, int limit) {
+    checkLimit(limit);
+    if (!StringUtils.hasText(prefix)) {
+      return List.of();
+    }
+    String keyword = prefix.trim();
+    if (usernameIndex.isReady() && ReadOnlyContext.isCacheable()) {
+      return metrics.record("autocompleteUsername.index", () -> usernameIndex.autocomplete(keyword, limit));
+    }
+    return metrics.record("autocompleteUsername.like", () -> queryFactory
+        .select(member.username.lower())
+        .distinct()
         .from(member)
-        .leftJoin(member.team, team)
-        .where(
-            usernameEq(condition.getUsername()),
-            teamNameEq(condition.getTeamName()),
-            ageGoe(condition.getAgeGoe()),
-            ageLoe(condition.getAgeLoe()));
+        .where(usernameMatches(Match.STARTS_WITH, keyword))
+        .orderBy(member.username.lower().asc())
+        .limit(limit)
+        .fetch());
+  }
 
-    return PageableExecutionUtils.getPage(content,pageable,countQuery::fetchCount);
+  private static void checkLimit(int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new InvalidSearchRequestException("limit은 1 이상 " + MAX_PAGE_SIZE + " 이하여야 합니다: " + limit);
+    }
   }
 
+  // 팀별 / 나이대별 건수를 facet 값마다 쿼리하지 않고 group by (team.name, age / 10) 한 번으로 구해서 양쪽으로 합산한다
+  // 결과 행 수는 (팀 수 x 나이대 수) 를 넘지 않는다
+  @Override
+  @Transactional(readOnly = true)
+  public MemberFacets searchFacets(MemberSearchCondition condition) {
+    return searchCache.get("searchFacets", condition, null, () -> metrics.record("searchFacets", condition, () -> {
+      // 상수를 바인딩 파라미터로 넘기면 select 와 group by 의 식이 달라져서 DB 가 거부하므로 템플릿에 직접 쓴다
+      NumberExpression<Integer> decade = Expressions.numberTemplate(Integer.class, "{0} / 10 * 10", member.age);
+      NumberExpression<Long> count = member.id.count();
+      List<Tuple> rows = queryFactory
+          .select(team.name, decade, count)
+          .from(member)
+          .leftJoin(member.team, team)
+          .where(
+              usernameEq(condition.getUsername()),
+              teamNameEq(condition.getTeamName()),
+              ageGoe(condition.getAgeGoe()),
+              ageLoe(condition.getAgeLoe()))
+          .groupBy(team.name, decade)
+          .fetch();
 
+      Map<String, Long> teams = new TreeMap<>();
+      Map<Integer, Long> ageDecades = new TreeMap<>();
+      long noTeam = 0;
+      for (Tuple row : rows) {
+        long rowCount = row.get(count);
+        String teamName = row.get(team.name);
+        if (teamName == null) {
+          noTeam += rowCount;
+        } else {
+          teams.merge(teamName, rowCount, Long::sum);
+        }
+        ageDecades.merge(row.get(decade).intValue(), rowCount, Long::sum);
+      }
+      return new MemberFacets(teams, noTeam, ageDecades);
+    }));
+  }
 
+  // member_search 읽기 모델만 조회 (team 조인 없음). 같은 트랜잭션의 변경은 flush 된 뒤에 보인다
+  // (모아 둔 새 회원 행은 조회 전에 쓴다)
+  @Override
+  @Transactional(readOnly = true)
+  public Page<MemberTeamDto> searchReadModel(MemberSearchCondition condition, Pageable pageable) {
+    searchProjection.writePendingInserts();
+    return searchCache.get("searchReadModel", condition, pageable, () -> metrics.record("searchReadModel", condition, () -> {
+      BooleanExpression[] where = {
+          StringUtils.hasText(condition.getUsername()) ? memberSearch.username.eq(condition.getUsername().trim()) : null,
+          StringUtils.hasText(condition.getTeamName()) ? memberSearch.teamName.eq(condition.getTeamName().trim()) : null,
+          condition.getAgeGoe() == null ? null : memberSearch.age.goe(condition.getAgeGoe()),
+          condition.getAgeLoe() == null ? null : memberSearch.age.loe(condition.getAgeLoe())};
 
+      List<MemberTeamDto> content = queryFactory
+          .select(new QMemberTeamDto(
+              memberSearch.memberId,
+              memberSearch.username,
+              memberSearch.age,
+              memberSearch.teamId,
+              memberSearch.teamName))
+          .from(memberSearch)
+          .where(where)
+          .orderBy(memberSearch.memberId.asc())
+          .offset(pageable.getOffset())
+          .limit(pageable.getPageSize())
+          .fetch();
 
+      return PageableExecutionUtils.getPage(content, pageable, () -> queryFactory
+          .select(memberSearch.count())
+          .from(memberSearch)
+          .where(where)
+          .fetchOne());
+    }));
+  }
+
+  // 팀명 조건이 없으면 team 조인은 count 결과에 영향이 없으므로 생략하고 member.id 만 센다
+  // 병렬 count 는 다른 EntityManager 에서 실행되므로 템플릿(MemberSearchTemplates) 대신 Querydsl 로 만든다
+  private JPAQuery<Long> countQuery(JPAQueryFactory queryFactory, MemberSearchCondition condition) {
+    JPAQuery<Long> query = queryFactory
+        .select(member.id.count())
+        .from(member);
+    if (StringUtils.hasText(condition.getTeamName())) {
+      query.join(member.team, team);
+    }
+    return query
+        .where(
+            usernameEq(condition.getUsername()),
+            teamNameEq(condition.getTeamName()),
+            ageGoe(condition.getAgeGoe()),
+            ageLoe(condition.getAgeLoe()));
+  }
 
   private BooleanExpression usernameEq(String username) {
-    return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    return StringUtils.hasText(username) ? member.username.eq(username.trim()) : null;
   }
 
   private BooleanExpression teamNameEq(String teamName) {
-    return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    return StringUtils.hasText(teamName) ? team.name.eq(teamName.trim()) : null;
   }
 
   private BooleanExpression ageGoe(Integer ageGoe) {
@@ -120,4 +367,20 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
   private BooleanExpression ageLoe(Integer ageLoe) {
     return ageLoe == null ? null : member.age.loe(ageLoe);
   }
+
+  // 인덱스와 같이 대소문자 무시
+  private BooleanExpression usernameMatches(Match match, String keyword) {
+    return match == Match.STARTS_WITH
+        ? member.username.startsWithIgnoreCase(keyword)
+        : member.username.containsIgnoreCase(keyword);
+  }
+
+  // (age, id) > (cursor.age, cursor.id)
+  private BooleanExpression cursorAfter(MemberCursor cursor) {
+    if (cursor == null) {
+      return null;
+    }
+    return member.age.gt(cursor.getAge())
+        .or(member.age.eq(cursor.getAge()).and(member.id.gt(cursor.getMemberId())));
+  }
 }
@@ -0,0 +1,116 @@
+package study.querydsl.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberFacets;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.BulkGeneration;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+
+// search / searchPage* 결과 캐시. 키 = 쿼리 종류 + 정규화된 조건 + pageable
+// 회원/팀이 바뀌면(엔티티 변경, 벌크 DML) 트랜잭션이 끝난 뒤 전체 무효화
+@Component
+public class MemberSearchCache {
+
+  private final boolean enabled;
+  private final Cache<Key, Object> cache;
+  private final BulkGeneration changes = new BulkGeneration(); // 회원/팀 변경 세대 (실행 시점, 트랜잭션 종료 시점에 올림)
+
+  public MemberSearchCache(
+      @Value("${member.search.cache.enabled:true}") boolean enabled,
+      @Value("${member.search.cache.ttl:10s}") Duration ttl,
+      @Value("${member.search.cache.max-size:10000}") long maxSize,
+      MeterRegistry registry) {
+    this.enabled = enabled;
+    this.cache = Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .maximumSize(maxSize)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(registry, cache, "member.search"); // cache.gets{result=hit|miss} 등
+  }
+
+  // 조회 중에 변경이 실행되거나 커밋되면(세대가 바뀌면) 그 결과는 변경 전 데이터일 수 있으므로 캐시에 넣지 않는다.
+  // 넣은 직후 세대가 바뀌었으면 invalidateAll 보다 늦게 들어갔을 수 있으니 다시 뺀다.
+  // 캐시된 값은 여러 요청이 같이 보므로 꺼낼 때마다 복사본을 준다
+  @SuppressWarnings("unchecked")
+  public <T> T get(String query, MemberSearchCondition condition, Pageable pageable, Supplier<T> loader) {
+    if (!enabled || !ReadOnlyContext.isCacheable()) {
+      return loader.get();
+    }
+    Key key = new Key(query, MemberSearchKey.of(condition), pageable);
+    Object cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return (T) copyOf(cached);
+    }
+    long generation = changes.current();
+    T loaded = loader.get();
+    if (loaded != null && changes.current() == generation) {
+      cache.put(key, copyOf(loaded));
+      if (changes.current() != generation) {
+        cache.invalidate(key);
+      }
+    }
+    return loaded;
+  }
+
+  @EventListener({MemberChangedEvent.class, TeamChangedEvent.class, BulkChangedEvent.class})
+  public void onChange() {
+    changes.changed(cache::invalidateAll);
+  }
+
+  // MemberTeamDto / MemberFacets 는 @Data 라 수정 가능하므로 DTO 와 컬렉션까지 새로 만든다
+  static Object copyOf(Object value) {
+    if (value instanceof List<?> list) {
+      return copyList(list);
+    }
+    if (value instanceof Page<?> page) {
+      return new PageImpl<>(copyList(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+    if (value instanceof MemberFacets facets) {
+      return new MemberFacets(
+          Collections.unmodifiableMap(new TreeMap<>(facets.getTeams())),
+          facets.getNoTeam(),
+          Collections.unmodifiableMap(new TreeMap<>(facets.getAgeDecades())));
+    }
+    return value;
+  }
+
+  private static List<Object> copyList(List<?> list) {
+    List<Object> copy = new ArrayList<>(list.size());
+    for (Object element : list) {
+      copy.add(element instanceof MemberTeamDto dto
+          ? new MemberTeamDto(dto.getMemberId(), dto.getUsername(), dto.getAge(), dto.getTeamId(), dto.getTeamName())
+          : element);
+    }
+    return Collections.unmodifiableList(copy);
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  Cache<Key, Object> getCache() {
+    return cache;
+  }
+
+  record Key(String query, MemberSearchKey condition, Pageable pageable) {
+  }
+}
@@ -0,0 +1,19 @@
+package study.querydsl.repository;
+
+import org.springframework.util.StringUtils;
+
+// 캐시 키로 쓰는 정규화된 검색 조건 (문자열 trim, null/공백 -> null)
+public record MemberSearchKey(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+
+  public static MemberSearchKey of(MemberSearchCondition condition) {
+    return new MemberSearchKey(
+        normalize(condition.getUsername()),
+        normalize(condition.getTeamName()),
+        condition.getAgeGoe(),
+        condition.getAgeLoe());
+  }
+
+  private static String normalize(String value) {
+    return StringUtils.hasText(value) ? value.trim() : null;
+  }
+}
@@ -0,0 +1,228 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.BulkChangedEvent.IdRange;
+import study.querydsl.event.DebouncedRebuild;
+import study.querydsl.event.EntityChangeType;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+import study.querydsl.event.TransactionCallbacks;
+
+// member_search 읽기 모델(MemberSearch) 유지.
+// 엔티티 이벤트는 flush 중에 같은 트랜잭션(같은 커넥션)에서 발행되므로 여기서 쓴 행은 원본과 함께 커밋/롤백된다.
+// 새 회원(PERSIST)은 트랜잭션(세션)마다 모아 두었다가 JDBC batch 로 insert 한다. 모아 둔 행은 커밋 직전(커밋 때의 마지막 flush 뒤),
+// batch 크기가 찼을 때, 그리고 같은 트랜잭션의 다른 변경(update/delete)을 쓰기 전에 내보내서 순서가 바뀌지 않게 한다.
+// 벌크 update/delete 중 id 구간을 아는 것(MemberBulkOperations 의 청크)은 같은 트랜잭션 안에서 그 구간만 다시 맞추고,
+// 어떤 행이 바뀌었는지 모르는 나머지는 백그라운드에서 모아서 전체를 다시 맞춘다 (DebouncedRebuild)
+@Slf4j
+@Component
+public class MemberSearchProjection implements DisposableBean {
+
+  private static final String UPDATE =
+      "update member_search set username = ?, age = ?, team_id = ?, team_name = ? where member_id = ?";
+  private static final String INSERT =
+      "insert into member_search (username, age, team_id, team_name, member_id) values (?, ?, ?, ?, ?)";
+  // 원본 쪽 행을 member_search 에 덮어쓴다 (없으면 insert). 행 단위라 재구축 중에 엔티티 이벤트가 같은 행을 써도 키가 충돌하지 않는다
+  private static final String MERGE = "merge into member_search s"
+      + " using (select m.member_id, m.username, m.age, t.team_id, t.name as team_name"
+      + " from member m left join team t on t.team_id = m.team_id%s) src"
+      + " on s.member_id = src.member_id"
+      + " when matched then update set s.username = src.username, s.age = src.age,"
+      + " s.team_id = src.team_id, s.team_name = src.team_name"
+      + " when not matched then insert (member_id, username, age, team_id, team_name)"
+      + " values (src.member_id, src.username, src.age, src.team_id, src.team_name)";
+  private static final String DELETE_ORPHANS = "delete from member_search s"
+      + " where not exists (select 1 from member m where m.member_id = s.member_id)";
+  private static final String IN_RANGE = " where m.member_id > ? and m.member_id <= ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final EntityManager em;
+  private final TransactionTemplate rebuildTransaction;
+  private final int batchSize;
+  private final DebouncedRebuild bulkRebuild;
+  private final Map<SessionImplementor, PendingInserts> pendingInserts = new ConcurrentHashMap<>();
+  private final Object bulkRangesKey = new Object(); // this 는 afterCompletionOnce 의 key
+
+  public MemberSearchProjection(JdbcTemplate jdbcTemplate, EntityManager em,
+      PlatformTransactionManager transactionManager,
+      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1000}") int batchSize,
+      @Value("${member.search.rebuild.quiet-period:2s}") Duration quietPeriod,
+      @Value("${member.search.rebuild.max-delay:60s}") Duration maxDelay) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.em = em;
+    this.rebuildTransaction = new TransactionTemplate(transactionManager);
+    // 백그라운드 스레드나 afterCompletion 에서도 호출되므로 항상 새 트랜잭션으로 실행한다
+    this.rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.batchSize = Math.max(1, batchSize);
+    this.bulkRebuild = new DebouncedRebuild("member-search", this::rebuild, quietPeriod, maxDelay);
+  }
+
+  @EventListener
+  public void onMemberChanged(MemberChangedEvent event) {
+    Member member = event.member();
+    if (event.type() == EntityChangeType.PERSIST) {
+      PendingInserts pending = pendingInserts.computeIfAbsent(em.unwrap(SessionImplementor.class), PendingInserts::new);
+      pending.rows.add(row(member));
+      if (pending.rows.size() >= batchSize) {
+        pending.write();
+      }
+      return;
+    }
+    writePendingInserts();
+    if (event.type() == EntityChangeType.REMOVE) {
+      jdbcTemplate.update("delete from member_search where member_id = ?", member.getId());
+      return;
+    }
+    Object[] row = row(member);
+    if (jdbcTemplate.update(UPDATE, row) == 0) {
+      jdbcTemplate.update(INSERT, row);
+    }
+  }
+
+  // 팀 이름 변경은 그 팀 회원 행 전체에, 팀 삭제는 팀 없음으로 반영 (Member.changeTeam 은 회원 update 로 들어온다)
+  @EventListener
+  public void onTeamChanged(TeamChangedEvent event) {
+    Team team = event.team();
+    if (event.type() == EntityChangeType.UPDATE) {
+      writePendingInserts();
+      jdbcTemplate.update("update member_search set team_name = ? where team_id = ?", team.getName(), team.getId());
+    } else if (event.type() == EntityChangeType.REMOVE) {
+      writePendingInserts();
+      jdbcTemplate.update("update member_search set team_id = null, team_name = null where team_id = ?", team.getId());
+    }
+  }
+
+  // BulkChangedEvent 는 SQL 을 실행하기 전에 발행되므로 구간 반영은 커밋 직전에 한다
+  @EventListener
+  public void onBulkChanged(BulkChangedEvent event) {
+    if (event.ids() != null) {
+      List<IdRange> ranges = TransactionCallbacks.bindOnce(bulkRangesKey, ArrayList::new, this::refresh);
+      if (ranges != null) {
+        ranges.add(event.ids());
+        return;
+      }
+    }
+    TransactionCallbacks.afterCompletionOnce(this, bulkRebuild::request);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildOnStartup() {
+    rebuild();
+  }
+
+  // 현재 트랜잭션에서 모아 둔 새 회원 행을 바로 쓴다 (같은 트랜잭션에서 member_search 를 읽기 전에)
+  public void writePendingInserts() {
+    if (pendingInserts.isEmpty() || !TransactionSynchronizationManager.isActualTransactionActive()) {
+      return;
+    }
+    PendingInserts pending = pendingInserts.get(em.unwrap(SessionImplementor.class));
+    if (pending != null) {
+      pending.write();
+    }
+  }
+
+  // 원본 테이블 전체와 다시 맞춘다 (지워진 회원 행 삭제 + merge). 한 트랜잭션이므로 커밋 전까지 조회 쪽은 이전 내용을 본다
+  public long rebuild() {
+    long start = System.nanoTime();
+    Integer rows = rebuildTransaction.execute(status -> {
+      jdbcTemplate.update(DELETE_ORPHANS);
+      return jdbcTemplate.update(MERGE.formatted(""));
+    });
+    log.info("member_search rebuilt: {} rows in {}ms", rows, (System.nanoTime() - start) / 1_000_000);
+    return rows == null ? 0 : rows;
+  }
+
+  // 벌크 변경 뒤 예약된 재구축이 끝날 때까지 기다린다 (테스트, 벤치마크 준비)
+  public boolean awaitRebuild(Duration timeout) throws InterruptedException {
+    return bulkRebuild.awaitIdle(timeout);
+  }
+
+  long rebuildRuns() {
+    return bulkRebuild.runs();
+  }
+
+  @Override
+  public void destroy() {
+    bulkRebuild.close();
+  }
+
+  private void refresh(List<IdRange> ranges) {
+    for (IdRange range : ranges) {
+      jdbcTemplate.update(DELETE_ORPHANS + " and s.member_id > ? and s.member_id <= ?",
+          range.fromExclusive(), range.toInclusive());
+      jdbcTemplate.update(MERGE.formatted(IN_RANGE), range.fromExclusive(), range.toInclusive());
+    }
+  }
+
+  private Object[] row(Member member) {
+    Team team = member.getTeam();
+    return new Object[]{member.getUsername(), member.getAge(), team == null ? null : team.getId(), teamName(team),
+        member.getId()};
+  }
+
+  // 회원만 읽고 팀은 건드리지 않은 경우 team 은 초기화 안 된 프록시다. flush 중에 프록시를 초기화하지 않고 직접 읽는다
+  private String teamName(Team team) {
+    if (team == null) {
+      return null;
+    }
+    if (Hibernate.isInitialized(team)) {
+      return team.getName();
+    }
+    return jdbcTemplate.queryForObject("select name from team where team_id = ?", String.class, team.getId());
+  }
+
+  // 한 세션에서 모은 새 회원 행. 커밋 때 Hibernate 가 마지막 flush 를 한 뒤(같은 트랜잭션 안) 쓰고, 트랜잭션이 끝나면 버린다.
+  // (Spring 의 beforeCommit 은 그 flush 보다 먼저 실행되므로 쓰지 않는다)
+  private class PendingInserts implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+    private final SessionImplementor session;
+    private final List<Object[]> rows = new ArrayList<>();
+
+    PendingInserts(SessionImplementor session) {
+      this.session = session;
+      session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this);
+      session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) this);
+    }
+
+    void write() {
+      if (!rows.isEmpty()) {
+        jdbcTemplate.batchUpdate(INSERT, rows);
+        rows.clear();
+      }
+    }
+
+    @Override
+    public void doBeforeTransactionCompletion(SessionImplementor session) {
+      write();
+    }
+
+    @Override
+    public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+      pendingInserts.remove(this.session);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package study.querydsl.repository;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+
+// MemberSearchCondition 의 조건 조합(4개 필드 -> 16가지)별 JPQL 을 기동 시 한 번만 만들어 두고
+// 호출마다 파라미터만 바인딩한다. (Querydsl 메타데이터 트리 생성 + JPQL 직렬화 비용 제거)
+// 같은 조합이면 JPQL 문자열도 같으므로 Hibernate 쿼리 플랜 캐시도 그대로 적중한다.
+@Component
+public class MemberSearchTemplates {
+
+  private static final int USERNAME = 1;
+  private static final int TEAM_NAME = 1 << 1;
+  private static final int AGE_GOE = 1 << 2;
+  private static final int AGE_LOE = 1 << 3;
+  private static final int SHAPES = 1 << 4;
+
+  private static final Param<String> usernameParam = new Param<>(String.class, "username");
+  private static final Param<String> teamNameParam = new Param<>(String.class, "teamName");
+  private static final Param<Integer> ageGoeParam = new Param<>(Integer.class, "ageGoe");
+  private static final Param<Integer> ageLoeParam = new Param<>(Integer.class, "ageLoe");
+
+  private static final QMemberTeamDto projection = new QMemberTeamDto(
+      member.id,
+      member.username,
+      member.age,
+      team.id,
+      team.name);
+
+  private final EntityManager em;
+  private final Template[] contents = new Template[SHAPES];
+  private final Template[] counts = new Template[SHAPES];
+
+  public MemberSearchTemplates(EntityManager em) {
+    this.em = em;
+    JPQLTemplates templates = JPAProvider.getTemplates(em);
+    for (int shape = 0; shape < SHAPES; shape++) {
+      // team.name = ? 조건이 있으면 팀 없는 회원은 어차피 빠지므로 inner join 으로 둔다.
+      // left join 이면 H2 가 조인 순서를 바꾸지 못해 team.name 인덱스를 못 쓰고 member 를 전체 스캔한다 (/stats/search-explain)
+      JPAQuery<MemberTeamDto> content = new JPAQuery<Void>()
+          .select(projection)
+          .from(member);
+      if ((shape & TEAM_NAME) != 0) {
+        content.join(member.team, team);
+      } else {
+        content.leftJoin(member.team, team);
+      }
+      contents[shape] = Template.of(templates, content.where(predicates(shape)));
+
+      // 팀명 조건이 없으면 team 조인은 count 결과에 영향이 없으므로 생략
+      JPAQuery<Long> count = new JPAQuery<Void>()
+          .select(member.id.count())
+          .from(member);
+      if ((shape & TEAM_NAME) != 0) {
+        count.join(member.team, team);
+      }
+      counts[shape] = Template.of(templates, count.where(predicates(shape)));
+    }
+  }
+
+  public List<MemberTeamDto> fetch(MemberSearchCondition condition) {
+    return fetch(condition, null);
+  }
+
+  public List<MemberTeamDto> fetch(MemberSearchCondition condition, Pageable pageable) {
+    MemberSearchKey key = MemberSearchKey.of(condition);
+    Query query = contents[shape(key)].bind(em, key);
+    if (pageable != null) {
+      query.setFirstResult((int) pageable.getOffset());
+      query.setMaxResults(pageable.getPageSize());
+    }
+    List<?> rows = query.getResultList();
+    List<MemberTeamDto> result = new ArrayList<>(rows.size());
+    for (Object row : rows) {
+      result.add(projection.newInstance((Object[]) row));
+    }
+    return result;
+  }
+
+  public long count(MemberSearchCondition condition) {
+    MemberSearchKey key = MemberSearchKey.of(condition);
+    return (Long) counts[shape(key)].bind(em, key).getSingleResult();
+  }
+
+  String jpql(MemberSearchCondition condition) {
+    return contents[shape(MemberSearchKey.of(condition))].jpql();
+  }
+
+  private static int shape(MemberSearchKey key) {
+    return (key.username() != null ? USERNAME : 0)
+        | (key.teamName() != null ? TEAM_NAME : 0)
+        | (key.ageGoe() != null ? AGE_GOE : 0)
+        | (key.ageLoe() != null ? AGE_LOE : 0);
+  }
+
+  private static Predicate[] predicates(int shape) {
+    return new Predicate[] {
+        (shape & USERNAME) != 0 ? member.username.eq(usernameParam) : null,
+        (shape & TEAM_NAME) != 0 ? team.name.eq(teamNameParam) : null,
+        (shape & AGE_GOE) != 0 ? member.age.goe(ageGoeParam) : null,
+        (shape & AGE_LOE) != 0 ? member.age.loe(ageLoeParam) : null
+    };
+  }
+
+  private record Template(String jpql, List<Object> constants) {
+
+    static Template of(JPQLTemplates templates, JPAQuery<?> query) {
+      JPQLSerializer serializer = new JPQLSerializer(templates);
+      serializer.serialize(query.getMetadata(), false, null);
+      return new Template(serializer.toString(), List.copyOf(serializer.getConstants()));
+    }
+
+    Query bind(EntityManager em, MemberSearchKey key) {
+      Map<ParamExpression<?>, Object> params = new HashMap<>(4);
+      if (key.username() != null) {
+        params.put(usernameParam, key.username());
+      }
+      if (key.teamName() != null) {
+        params.put(teamNameParam, key.teamName());
+      }
+      if (key.ageGoe() != null) {
+        params.put(ageGoeParam, key.ageGoe());
+      }
+      if (key.ageLoe() != null) {
+        params.put(ageLoeParam, key.ageLoe());
+      }
+      Query query = em.createQuery(jpql);
+      JPAUtil.setConstants(query, constants, params);
+      return query;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.ReplicaRoutingDataSource;
+import study.querydsl.config.ReplicaRoutingDataSource.Replica;
+
+// 쿼리를 별도 스레드의 readOnly 트랜잭션(별도 커넥션)으로 실행한다. (예: searchPageComplex 의 count 쿼리)
+// readOnly 라서 읽기/쓰기 분리(member.datasource.routing-enabled) 시 호출한 쪽 content 조회처럼 replica 로 간다.
+// 스레드 풀이나 (그 readOnly 트랜잭션이 쓸) 커넥션 풀에 여유가 없으면 null 을 돌려주고, 호출한 쪽은 순차 실행으로 대체한다.
+@Component
+public class ParallelQueryExecutor implements DisposableBean {
+
+  private final boolean enabled;
+  private final EntityManager em;
+  private final TransactionTemplate readOnly;
+  private final HikariPoolMXBean pool;
+  private final ReplicaRoutingDataSource replicas; // 읽기/쓰기 분리 시 readOnly 트랜잭션이 실제로 커넥션을 얻는 곳, 아니면 null
+  private final ThreadPoolExecutor executor;
+
+  public ParallelQueryExecutor(
+      @Value("${member.search.parallel.enabled:false}") boolean enabled,
+      @Value("${member.search.parallel.threads:8}") int threads,
+      EntityManager em,
+      PlatformTransactionManager transactionManager,
+      DataSource dataSource,
+      @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource) {
+    this.enabled = enabled;
+    this.em = em;
+    this.readOnly = new TransactionTemplate(transactionManager);
+    this.readOnly.setReadOnly(true);
+    this.pool = hikariPool(dataSource);
+    this.replicas = unwrap(replicaDataSource.getIfAvailable());
+    // 큐 없이 스레드가 모두 바쁘면 바로 거절 -> 순차 실행
+    this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new SynchronousQueue<>(), new CustomizableThreadFactory("member-query-"));
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public <T> CompletableFuture<T> trySubmit(Function<JPAQueryFactory, T> query) {
+    if (!hasIdleConnection()) {
+      return null;
+    }
+    try {
+      // em 은 트랜잭션에 묶인 공유 프록시라서 작업 스레드의 트랜잭션 EntityManager 를 쓴다
+      return CompletableFuture.supplyAsync(() -> readOnly.execute(status -> query.apply(new JPAQueryFactory(em))),
+          executor);
+    } catch (RejectedExecutionException e) {
+      return null;
+    }
+  }
+
+  public static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  // 라우팅 중이면 DataSource(LazyConnectionDataSourceProxy) 를 벗겨도 primary 풀이 나오므로 replica 풀들을 본다.
+  // round-robin 으로 어느 replica 가 걸릴지 모르므로 살아있는 replica 가 모두 여유가 있어야 한다.
+  // 살아있는 replica 가 없으면 fallback 여부는 ReplicaRoutingDataSource 가 정하므로 막지 않는다
+  private boolean hasIdleConnection() {
+    if (replicas == null) {
+      return pool == null || pool.getIdleConnections() > 0;
+    }
+    for (Replica replica : replicas.getReplicas()) {
+      // replica 풀은 첫 커넥션 때 만들어지므로 매번 찾는다
+      HikariPoolMXBean replicaPool = hikariPool(replica.getDataSource());
+      if (replica.isHealthy() && replicaPool != null && replicaPool.getIdleConnections() == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static ReplicaRoutingDataSource unwrap(DataSource replicaDataSource) {
+    try {
+      if (replicaDataSource != null && replicaDataSource.isWrapperFor(ReplicaRoutingDataSource.class)) {
+        return replicaDataSource.unwrap(ReplicaRoutingDataSource.class); // p6spy 로 감싸져 있다
+      }
+    } catch (SQLException e) {
+      // 라우팅 정보를 못 얻으면 primary 풀만 본다
+    }
+    return null;
+  }
+
+  private static HikariPoolMXBean hikariPool(DataSource dataSource) {
+    try {
+      if (dataSource.isWrapperFor(HikariDataSource.class)) {
+        return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+      }
+    } catch (SQLException e) {
+      // 풀 정보를 못 얻으면 스레드 풀 포화 여부만 본다
+    }
+    return null;
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+}
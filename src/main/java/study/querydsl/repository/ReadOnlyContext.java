@@ -0,0 +1,13 @@
+package study.querydsl.repository;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public abstract class ReadOnlyContext {
+
+  // 트랜잭션이 없거나 readOnly 트랜잭션일 때만 캐시를 사용한다.
+  // 쓰기 트랜잭션 안에서는 아직 flush 되지 않은 변경(롤백될 수도 있는)이 캐시에 섞이지 않도록 DB를 직접 조회
+  public static boolean isCacheable() {
+    return !TransactionSynchronizationManager.isActualTransactionActive()
+        || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+}
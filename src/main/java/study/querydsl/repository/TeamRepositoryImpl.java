@@ -0,0 +1,52 @@
+package study.querydsl.repository;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamWithMembersDto;
+
+@RequiredArgsConstructor
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+  private final JPAQueryFactory queryFactory;
+
+  // 컬렉션 fetch join + 페이징은 Hibernate 가 전체를 메모리에 올려서 자르므로 두 단계로 나눈다.
+  // 1) 팀 id 만 DB 에서 limit/offset 으로 페이징  2) 그 id 들에 대해서만 members fetch join
+  // 팀 수, 페이지 크기와 무관하게 쿼리 수가 고정된다 (@BatchSize 로 읽으면 팀 100개마다 1번씩 늘어난다)
+  @Override
+  @Transactional(readOnly = true)
+  public Page<TeamWithMembersDto> findTeamsWithMembers(Pageable pageable) {
+    List<Long> teamIds = queryFactory
+        .select(team.id)
+        .from(team)
+        .orderBy(team.id.asc())
+        .offset(pageable.getOffset())
+        .limit(pageable.getPageSize())
+        .fetch();
+
+    List<TeamWithMembersDto> content = teamIds.isEmpty() ? List.of() : queryFactory
+        .selectFrom(team)
+        .distinct()
+        .leftJoin(team.members, member).fetchJoin()
+        .where(team.id.in(teamIds))
+        .orderBy(team.id.asc())
+        .fetch()
+        .stream()
+        .map(TeamWithMembersDto::new)
+        .toList();
+
+    JPAQuery<Long> countQuery = queryFactory
+        .select(team.count())
+        .from(team);
+
+    return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+  }
+}
@@ -0,0 +1,293 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.BulkGeneration;
+import study.querydsl.event.DebouncedRebuild;
+import study.querydsl.event.EntityChangeType;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TransactionCallbacks;
+
+// findByUsername 용 Member.username 블룸 필터. "확실히 없음" 이면 DB 를 거치지 않고 빈 결과를 돌려준다.
+// 거짓 음성이 없어야 하므로 persist/이름 변경은 flush 시점(커밋 전)에 바로 넣고,
+// 어떤 이름이 생겼는지 모르는 벌크 update/insert 는 그 즉시 필터를 끄고 백그라운드에서 모아서 다시 만든다.
+// 재구축이 읽는 동안 커밋되는 이름은 재구축 쿼리에 안 보일 수 있으므로, flush 부터 트랜잭션이 끝날 때까지의 이름(inFlight)과
+// 그 사이 커밋된 이름을 새 필터에 다시 넣은 뒤 교체한다.
+// 삭제/이름 변경으로 남은 비트(drift)나 예상 건수 초과는 거짓 양성만 늘리므로 일정 비율을 넘으면 다시 만든다.
+@Slf4j
+@Component
+public class UsernameBloomFilter implements DisposableBean {
+
+  private static final int MIN_EXPECTED = 1024;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final EntityManager em;
+  private final boolean enabled;
+  private final double falsePositiveRate;
+  private final double growth;
+  private final double maxDrift;
+
+  private final Counter skipped;
+  private final Counter passed;
+  private final Counter falsePositives;
+
+  private volatile Bits bits;
+  private Bits building; // this 로 보호, 재구축 중에만 null 이 아니다
+  private final Map<String, Integer> inFlight = new HashMap<>(); // this 로 보호, flush 됐지만 트랜잭션이 끝나지 않은 이름
+  private final Object rebuildLock = new Object();
+  private final BulkGeneration bulkChanges = new BulkGeneration(); // 재구축이 시작된 뒤 벌크 변경이 실행/커밋됐는지 보는 용도
+  private final DebouncedRebuild bulkRebuild;
+
+  public UsernameBloomFilter(JdbcTemplate jdbcTemplate, EntityManager em, MeterRegistry registry,
+      @Value("${member.search.username-bloom.enabled:true}") boolean enabled,
+      @Value("${member.search.username-bloom.false-positive-rate:0.01}") double falsePositiveRate,
+      @Value("${member.search.username-bloom.growth:2.0}") double growth,
+      @Value("${member.search.username-bloom.max-drift:0.2}") double maxDrift,
+      @Value("${member.search.rebuild.quiet-period:2s}") Duration quietPeriod,
+      @Value("${member.search.rebuild.max-delay:60s}") Duration maxDelay) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.em = em;
+    this.enabled = enabled;
+    this.falsePositiveRate = falsePositiveRate;
+    this.growth = growth;
+    this.maxDrift = maxDrift;
+    this.bits = Bits.create(MIN_EXPECTED, falsePositiveRate);
+    this.bulkRebuild = new DebouncedRebuild("username-bloom", this::rebuild, quietPeriod, maxDelay);
+    // result=skip: DB 생략, pass: 있을 수 있어 조회했고 실제로 있음, false_positive: 조회했지만 없음
+    this.skipped = counter(registry, "skip");
+    this.passed = counter(registry, "pass");
+    this.falsePositives = counter(registry, "false_positive");
+    Gauge.builder("member.username.bloom.drift", this, filter -> filter.bits.drift())
+        .description("재구축 이후 삭제/이름 변경되었거나 예상 건수를 넘은 비율")
+        .register(registry);
+  }
+
+  private static Counter counter(MeterRegistry registry, String result) {
+    return Counter.builder("member.username.bloom").tag("result", result).register(registry);
+  }
+
+  // 쓰기 트랜잭션 안에서는 아직 flush 되지 않은 persist 가 필터에 없을 수 있으므로 항상 조회한다
+  public <T> List<T> findOrSkip(String username, Supplier<List<T>> query) {
+    if (!enabled || !bulkChanges.isReady() || username == null || !ReadOnlyContext.isCacheable()) {
+      return query.get();
+    }
+    if (!bits.mightContain(username)) {
+      skipped.increment();
+      return List.of();
+    }
+    List<T> result = query.get();
+    (result.isEmpty() ? falsePositives : passed).increment();
+    return result;
+  }
+
+  public boolean mightContain(String username) {
+    return !enabled || !bulkChanges.isReady() || bits.mightContain(username);
+  }
+
+  public boolean isReady() {
+    return enabled && bulkChanges.isReady();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildOnStartup() {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  // flush 중에 발행된다. 롤백되면 비트만 남는다 (거짓 양성)
+  @EventListener
+  public void onMemberChanged(MemberChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    String username = event.member().getUsername();
+    boolean tracked = event.type() != EntityChangeType.REMOVE && username != null;
+    if (tracked) {
+      em.unwrap(SessionImplementor.class).getActionQueue()
+          .registerProcess((success, session) -> completed(username, success));
+    }
+    Bits current;
+    synchronized (this) {
+      current = bits;
+      if (event.type() == EntityChangeType.REMOVE) {
+        current.stale.incrementAndGet();
+      } else if (username != null) {
+        // 이미 있는 이름이면 나이 등 다른 필드 변경으로 보고 넘어간다. 없던 이름으로 update 면 이전 이름이 낡은 비트가 된다
+        if (!current.mightContain(username)) {
+          current.put(username);
+          if (event.type() == EntityChangeType.UPDATE) {
+            current.stale.incrementAndGet();
+          }
+        }
+        if (building != null) {
+          building.put(username);
+        }
+      }
+      if (tracked) {
+        inFlight.merge(username, 1, Integer::sum);
+      }
+    }
+    if (current.drift() > maxDrift) {
+      TransactionCallbacks.afterCompletionOnce(this, bulkRebuild::request);
+    }
+  }
+
+  // 트랜잭션이 끝난 뒤 (Hibernate after-completion). 재구축 쿼리가 지나간 뒤 커밋됐을 수 있으므로 만드는 중인 필터에도 넣는다
+  private synchronized void completed(String username, boolean committed) {
+    if (committed && building != null) {
+      building.put(username);
+    }
+    inFlight.computeIfPresent(username, (name, count) -> count == 1 ? null : count - 1);
+  }
+
+  // 청크마다 커밋하는 벌크 작업이 청크마다 전체를 다시 읽지 않도록 재구축은 모아서 백그라운드에서 한다.
+  // 새 username 이 생겼을 수 있으면 실행할 때와 커밋된 뒤 둘 다 필터를 끈다 -> 재구축 전까지 항상 DB 조회
+  @EventListener
+  public void onBulkChanged(BulkChangedEvent event) {
+    if (!enabled || !"member".equalsIgnoreCase(event.table())) {
+      return;
+    }
+    if (event.isDelete()) {
+      TransactionCallbacks.afterCompletionOnce(this, bulkRebuild::request); // 지우기만 하면 거짓 양성만 남는다
+    } else {
+      bulkChanges.changed(bulkRebuild::request);
+    }
+  }
+
+  // 벌크 변경 뒤 예약된 재구축이 끝날 때까지 기다린다 (테스트, 벤치마크 준비)
+  public boolean awaitRebuild(Duration timeout) throws InterruptedException {
+    return bulkRebuild.awaitIdle(timeout);
+  }
+
+  @Override
+  public void destroy() {
+    bulkRebuild.close();
+  }
+
+  // member.username 을 스트리밍으로 읽어 새 필터를 만든 뒤 교체한다. 읽는 동안 flush/커밋된 이름은 양쪽에 넣고,
+  // 교체 직전에 아직 트랜잭션이 끝나지 않은 이름(inFlight)도 넣는다 (읽기 전에 flush 되고 읽은 뒤에 커밋될 이름).
+  // 읽기 시작한 뒤 벌크 변경이 실행되거나 커밋됐으면 교체는 하되 그 변경을 반영할 다음 재구축까지 ready 로 돌리지 않는다
+  public void rebuild() {
+    synchronized (rebuildLock) {
+      long start = System.nanoTime();
+      long bulkChangesAtStart = bulkChanges.current();
+      Long rows = jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+      Bits fresh = Bits.create(Math.max(MIN_EXPECTED, (long) ((rows == null ? 0 : rows) * growth)), falsePositiveRate);
+      synchronized (this) {
+        building = fresh;
+      }
+      try {
+        jdbcTemplate.query("select username from member where username is not null",
+            rs -> {
+              fresh.put(rs.getString(1));
+            });
+        synchronized (this) {
+          inFlight.keySet().forEach(fresh::put);
+          bits = fresh;
+          bulkChanges.finish(bulkChangesAtStart);
+        }
+      } finally {
+        synchronized (this) {
+          building = null;
+        }
+      }
+      log.info("username bloom filter rebuilt: {} bits, {} hashes, {} names in {}ms",
+          fresh.size, fresh.hashes, fresh.inserted.get(), (System.nanoTime() - start) / 1_000_000);
+    }
+  }
+
+  // 비트 배열은 AtomicLongArray 라서 읽기는 락 없이, 쓰기는 CAS 로 한다
+  static class Bits {
+
+    private final AtomicLongArray words;
+    private final long size;
+    private final int hashes;
+    private final long expected;
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+
+    private Bits(long expected, long size, int hashes) {
+      this.expected = expected;
+      this.size = size;
+      this.hashes = hashes;
+      this.words = new AtomicLongArray((int) ((size + 63) >>> 6));
+    }
+
+    // m = -n ln p / (ln 2)^2, k = m / n * ln 2
+    static Bits create(long expected, double falsePositiveRate) {
+      long size = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+      size = Math.max(64, Math.min(size, (long) Integer.MAX_VALUE * 64));
+      int hashes = Math.max(1, (int) Math.round((double) size / expected * Math.log(2)));
+      return new Bits(expected, size, hashes);
+    }
+
+    void put(String username) {
+      long hash = hash(username);
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32);
+      for (int i = 1; i <= hashes; i++) {
+        long bit = Math.floorMod(h1 + (long) i * h2, size);
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long word = words.get(index);
+        while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+          word = words.get(index);
+        }
+      }
+      inserted.incrementAndGet();
+    }
+
+    boolean mightContain(String username) {
+      long hash = hash(username);
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32);
+      for (int i = 1; i <= hashes; i++) {
+        long bit = Math.floorMod(h1 + (long) i * h2, size);
+        if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // 재구축 뒤 낡은 비트 비율 + 예상 건수를 넘겨 넣은 비율
+    double drift() {
+      double overflow = Math.max(0, inserted.get() - expected) / (double) expected;
+      return (double) stale.get() / Math.max(1, inserted.get()) + overflow;
+    }
+
+    // FNV-1a 64 + splitmix64 마무리 (String.hashCode 는 32비트라 해시 두 개를 만들기에 부족하다)
+    private static long hash(String value) {
+      long hash = 0xcbf29ce484222325L;
+      for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+        hash ^= b;
+        hash *= 0x100000001b3L;
+      }
+      hash ^= hash >>> 30;
+      hash *= 0xbf58476d1ce4e5b9L;
+      hash ^= hash >>> 27;
+      hash *= 0x94d049bb133111ebL;
+      return hash ^ (hash >>> 31);
+    }
+  }
+}
@@ -0,0 +1,329 @@
+package study.querydsl.repository;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.Assert;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.BulkGeneration;
+import study.querydsl.event.DebouncedRebuild;
+import study.querydsl.event.EntityChangeType;
+import study.querydsl.event.MemberChangedEvent;
+
+// username 부분 일치/접두어 검색용 메모리 trigram 인덱스 (trigram -> member id 집합)
+// 커밋된 Member 변경은 엔티티 이벤트로, 벌크 변경은 전체 재구축으로 따라간다.
+// 벌크 변경 뒤에는 재구축이 끝날 때까지 인덱스를 쓰지 않는다 (호출한 쪽이 DB like 로 조회).
+// 후보 id 를 DB 의 나머지 조건(팀, 나이)과 함께 member.id in (...) 로 조회한다. (MemberRepositoryImpl.searchByUsername)
+@Slf4j
+@Component
+public class UsernameNgramIndex implements DisposableBean {
+
+  // in_clause_parameter_padding 이 2의 거듭제곱으로 늘리므로 1000 이면 바인드 파라미터 1024 개
+  private static final int MAX_BIND_CANDIDATES = 1000;
+
+  // 문자열 시작 표시. 접두어 검색과 1~2 글자 접두어도 trigram 하나로 찾을 수 있게 앞에 두 개 붙인다
+  private static final char START = '\u0002';
+  private static final String PADDING = "" + START + START;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean enabled;
+  private final int rebuildThreads;
+  private final int maxCandidates;
+
+  private volatile Snapshot snapshot = new Snapshot();
+  private boolean rebuilding; // this 로 보호
+  private final Queue<Change> changesDuringRebuild = new ArrayDeque<>(); // this 로 보호
+  private final Object rebuildLock = new Object();
+  private final BulkGeneration bulkChanges = new BulkGeneration(); // 재구축이 시작된 뒤 벌크 변경이 실행/커밋됐는지 보는 용도
+  private final DebouncedRebuild bulkRebuild;
+
+  public UsernameNgramIndex(JdbcTemplate jdbcTemplate,
+      @Value("${member.search.username-index.enabled:true}") boolean enabled,
+      @Value("${member.search.username-index.rebuild-threads:4}") int rebuildThreads,
+      @Value("${member.search.username-index.max-candidates:500}") int maxCandidates,
+      @Value("${member.search.rebuild.quiet-period:2s}") Duration quietPeriod,
+      @Value("${member.search.rebuild.max-delay:60s}") Duration maxDelay) {
+    Assert.isTrue(maxCandidates <= MAX_BIND_CANDIDATES,
+        "member.search.username-index.max-candidates 는 " + MAX_BIND_CANDIDATES + " 이하여야 합니다 (in 절 바인드 파라미터 수)");
+    this.jdbcTemplate = jdbcTemplate;
+    this.enabled = enabled;
+    this.rebuildThreads = rebuildThreads;
+    this.maxCandidates = maxCandidates;
+    this.bulkRebuild = new DebouncedRebuild("username-index", this::rebuild, quietPeriod, maxDelay);
+  }
+
+  public enum Match {
+    CONTAINS, STARTS_WITH
+  }
+
+  // 인덱스를 쓸 수 있는 상태인지 (꺼져 있거나 첫 재구축 전이면 호출한 쪽이 DB like 로 대체)
+  public boolean isReady() {
+    return enabled && bulkChanges.isReady();
+  }
+
+  // 조건에 맞는 member id. 후보가 maxCandidates 를 넘으면 null (인덱스로 좁혀지지 않으니 DB 에서 찾는 게 낫다)
+  public Collection<Long> find(Match match, String text) {
+    String query = text.toLowerCase(Locale.ROOT);
+    Snapshot current = snapshot;
+    if (match == Match.CONTAINS && query.length() < 3) {
+      return current.scan(query, maxCandidates);
+    }
+    List<String> grams = trigrams(match == Match.STARTS_WITH ? PADDING + query : query);
+    return current.intersect(grams, match, query, maxCandidates);
+  }
+
+  // 접두어로 시작하는 username 을 정렬 순서대로 limit 개 (DB 를 거치지 않는 자동완성)
+  public List<String> autocomplete(String prefix, int limit) {
+    String from = prefix.toLowerCase(Locale.ROOT);
+    NavigableMap<String, Integer> range = snapshot.usernames.subMap(from, true, from + Character.MAX_VALUE, false);
+    List<String> result = new ArrayList<>(Math.min(limit, 16));
+    for (String username : range.keySet()) {
+      if (result.size() >= limit) {
+        break;
+      }
+      result.add(username);
+    }
+    return result;
+  }
+
+  public int size() {
+    return snapshot.names.size();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildOnStartup() {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  @TransactionalEventListener
+  public void onMemberChanged(MemberChangedEvent event) {
+    if (!enabled || event.member().getId() == null) {
+      return;
+    }
+    Change change = new Change(event.member().getId(),
+        event.type() == EntityChangeType.REMOVE ? null : event.member().getUsername());
+    synchronized (this) {
+      snapshot.apply(change);
+      if (rebuilding) {
+        changesDuringRebuild.add(change);
+      }
+    }
+  }
+
+  // 청크마다 커밋하는 벌크 작업이 청크마다 전체를 다시 읽지 않도록 재구축은 모아서 백그라운드에서 한다.
+  // 그 사이 인덱스는 바뀐 username / 지워진 회원(자동완성)을 모르므로 재구축 전까지 끈다 (실행할 때와 커밋된 뒤 둘 다)
+  @EventListener
+  public void onBulkChanged(BulkChangedEvent event) {
+    if (!enabled || !"member".equalsIgnoreCase(event.table())) {
+      return;
+    }
+    bulkChanges.changed(bulkRebuild::request);
+  }
+
+  // 벌크 변경 뒤 예약된 재구축이 끝날 때까지 기다린다 (테스트, 벤치마크 준비)
+  public boolean awaitRebuild(Duration timeout) throws InterruptedException {
+    return bulkRebuild.awaitIdle(timeout);
+  }
+
+  long rebuildRuns() {
+    return bulkRebuild.runs();
+  }
+
+  // id 범위를 rebuildThreads 개로 나눠 동시에 읽어서 새 스냅샷을 만든 뒤 한 번에 교체한다.
+  // 읽는 동안 커밋된 변경은 모아 두었다가 교체 직전에 새 스냅샷에 다시 적용한다. (같은 id 에 대한 적용은 멱등)
+  // 읽기 시작한 뒤 벌크 변경이 실행되거나 커밋됐으면 교체는 하되 그 변경을 반영할 다음 재구축까지 ready 로 돌리지 않는다
+  public void rebuild() {
+    synchronized (rebuildLock) {
+      long start = System.nanoTime();
+      long bulkChangesAtStart = bulkChanges.current();
+      synchronized (this) {
+        rebuilding = true;
+        changesDuringRebuild.clear();
+      }
+      try {
+        Snapshot fresh = load();
+        synchronized (this) {
+          Change change;
+          while ((change = changesDuringRebuild.poll()) != null) {
+            fresh.apply(change);
+          }
+          snapshot = fresh;
+          bulkChanges.finish(bulkChangesAtStart);
+        }
+      } finally {
+        synchronized (this) {
+          rebuilding = false;
+          changesDuringRebuild.clear();
+        }
+      }
+      log.info("username index rebuilt: {} members in {}ms",
+          snapshot.names.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+  }
+
+  private Snapshot load() {
+    Map<String, Object> range = jdbcTemplate.queryForMap("select min(member_id) as min_id, max(member_id) as max_id from member");
+    Snapshot fresh = new Snapshot();
+    if (range.get("min_id") == null) {
+      return fresh;
+    }
+    long min = ((Number) range.get("min_id")).longValue();
+    long max = ((Number) range.get("max_id")).longValue();
+    long step = Math.max(1, (max - min + rebuildThreads) / rebuildThreads);
+
+    ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads, new CustomizableThreadFactory("username-index-"));
+    try {
+      List<Future<?>> parts = new ArrayList<>();
+      for (long from = min; from <= max; from += step) {
+        long partFrom = from;
+        long partTo = Math.min(max, from + step - 1);
+        parts.add(executor.submit(() -> jdbcTemplate.query(
+            "select member_id, username from member where member_id between ? and ?",
+            rs -> {
+              String username = rs.getString(2);
+              if (username != null) {
+                fresh.put(rs.getLong(1), username);
+              }
+            },
+            partFrom, partTo)));
+      }
+      for (Future<?> part : parts) {
+        part.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("username index rebuild interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("username index rebuild failed", e.getCause());
+    } finally {
+      executor.shutdown();
+    }
+    return fresh;
+  }
+
+  @Override
+  public void destroy() {
+    bulkRebuild.close();
+  }
+
+  static List<String> trigrams(String text) {
+    List<String> grams = new ArrayList<>(Math.max(0, text.length() - 2));
+    for (int i = 0; i + 3 <= text.length(); i++) {
+      grams.add(text.substring(i, i + 3));
+    }
+    return grams;
+  }
+
+  private record Change(long memberId, String username) { // username == null 이면 삭제
+  }
+
+  private static class Snapshot {
+
+    private final Map<Long, String> names = new ConcurrentHashMap<>(); // id -> 소문자 username
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Integer> usernames = new ConcurrentSkipListMap<>(); // username -> 회원 수
+
+    void apply(Change change) {
+      String previous = change.username() == null
+          ? names.remove(change.memberId())
+          : names.get(change.memberId());
+      String next = change.username() == null ? null : change.username().toLowerCase(Locale.ROOT);
+      if (previous != null && previous.equals(next)) {
+        return;
+      }
+      if (previous != null) {
+        for (String gram : trigrams(PADDING + previous)) {
+          Set<Long> ids = postings.get(gram);
+          if (ids != null) {
+            ids.remove(change.memberId());
+          }
+        }
+        usernames.computeIfPresent(previous, (username, count) -> count == 1 ? null : count - 1);
+      }
+      if (next != null) {
+        put(change.memberId(), next);
+      }
+    }
+
+    // 재구축 중에는 여러 스레드가 동시에 호출한다
+    void put(long memberId, String username) {
+      String lower = username.toLowerCase(Locale.ROOT);
+      names.put(memberId, lower);
+      for (String gram : trigrams(PADDING + lower)) {
+        postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(memberId);
+      }
+      usernames.merge(lower, 1, Integer::sum);
+    }
+
+    // 가장 작은 posting 부터 훑으면서 나머지 trigram 에 모두 있는지 보고, 실제 문자열로 한 번 더 확인한다
+    Collection<Long> intersect(List<String> grams, Match match, String query, int maxCandidates) {
+      List<Set<Long>> sets = new ArrayList<>(grams.size());
+      for (String gram : grams) {
+        Set<Long> ids = postings.get(gram);
+        if (ids == null || ids.isEmpty()) {
+          return List.of();
+        }
+        sets.add(ids);
+      }
+      sets.sort(Comparator.comparingInt(Set::size));
+      List<Long> result = new ArrayList<>();
+      for (Long id : sets.get(0)) {
+        if (!containsAll(sets, id)) {
+          continue;
+        }
+        String name = names.get(id);
+        if (name != null && (match == Match.STARTS_WITH ? name.startsWith(query) : name.contains(query))) {
+          if (result.size() >= maxCandidates) {
+            return null;
+          }
+          result.add(id);
+        }
+      }
+      return result;
+    }
+
+    // 두 글자 이하 부분 일치는 trigram 으로 거를 수 없으므로 전체를 병렬로 훑는다
+    Collection<Long> scan(String query, int maxCandidates) {
+      List<Long> result = names.entrySet().parallelStream()
+          .filter(entry -> entry.getValue().contains(query))
+          .map(Map.Entry::getKey)
+          .limit(maxCandidates + 1L)
+          .toList();
+      return result.size() > maxCandidates ? null : result;
+    }
+
+    private static boolean containsAll(List<Set<Long>> sets, Long id) {
+      for (int i = 1; i < sets.size(); i++) {
+        if (!sets.get(i).contains(id)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
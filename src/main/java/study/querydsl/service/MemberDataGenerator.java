@@ -0,0 +1,153 @@
+package study.querydsl.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.SplittableRandom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.BulkChangedEvent.IdRange;
+import study.querydsl.service.MemberSeedProperties.AgeDistribution;
+
+// em.persist 대신 JDBC batch 로 팀/회원 데이터를 대량 생성한다.
+// 같은 설정(seed 포함)이면 항상 같은 데이터가 만들어진다.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MemberDataGenerator {
+
+  private static final String INSERT_TEAM = "insert into team (team_id, name) values (?, ?)";
+  private static final String INSERT_MEMBER = "insert into member (member_id, username, age, team_id, version) values (?, ?, ?, ?, 0)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final MemberSeedProperties properties;
+  private final ApplicationEventPublisher publisher;
+
+  public void generate() {
+    long start = System.nanoTime();
+    SplittableRandom random = new SplittableRandom(properties.getSeed());
+
+    int teams = properties.getTeams();
+    long firstTeamId = reserveIds("team", "team_id", "team_seq", teams);
+    transactionTemplate.executeWithoutResult(status ->
+        jdbcTemplate.batchUpdate(INSERT_TEAM, new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int i) throws SQLException {
+            ps.setLong(1, firstTeamId + i);
+            ps.setString(2, teamName(i));
+          }
+
+          @Override
+          public int getBatchSize() {
+            return teams;
+          }
+        }));
+
+    long total = properties.getMembers();
+    long firstMemberId = reserveIds("member", "member_id", "member_seq", total);
+    for (long from = 0; from < total; from += properties.getChunkSize()) {
+      long to = Math.min(from + properties.getChunkSize(), total);
+      insertMembers(random, firstMemberId, firstTeamId, from, to);
+      if (log.isDebugEnabled()) {
+        log.debug("member seed progress {}/{}", to, total);
+      }
+    }
+
+    double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+    log.info("seeded {} teams, {} members in {}s ({} rows/sec)",
+        teams, total, String.format("%.2f", seconds), String.format("%.0f", (teams + total) / seconds));
+  }
+
+  // 한 청크 = 한 트랜잭션, 청크 안은 batchSize 단위 JDBC batch.
+  // JDBC 로 넣으므로 엔티티 이벤트가 없다 -> 청크마다 같은 트랜잭션 안에서 그 id 구간의 벌크 변경으로 먼저 알린다 (MemberBulkOperations 와 같이).
+  // 메모리 인덱스는 청크가 커밋되기 전에 꺼지고(거짓 음성 방지), 읽기 모델은 커밋 직전에 이 구간만 다시 읽는다
+  private void insertMembers(SplittableRandom random, long firstMemberId, long firstTeamId, long from, long to) {
+    transactionTemplate.executeWithoutResult(status -> {
+      publisher.publishEvent(new BulkChangedEvent("member", INSERT_MEMBER,
+          new IdRange(firstMemberId + from - 1, firstMemberId + to - 1)));
+      for (long batchFrom = from; batchFrom < to; batchFrom += properties.getBatchSize()) {
+        long batchStart = batchFrom;
+        int size = (int) Math.min(properties.getBatchSize(), to - batchFrom);
+        jdbcTemplate.batchUpdate(INSERT_MEMBER, new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int i) throws SQLException {
+            long index = batchStart + i;
+            ps.setLong(1, firstMemberId + index);
+            ps.setString(2, username(random, index));
+            ps.setInt(3, age(random, index));
+            if (properties.getTeams() > 0) {
+              ps.setLong(4, firstTeamId + index % properties.getTeams());
+            } else {
+              ps.setNull(4, Types.BIGINT);
+            }
+          }
+
+          @Override
+          public int getBatchSize() {
+            return size;
+          }
+        });
+      }
+    });
+  }
+
+  private String teamName(int index) {
+    return index < 26 ? "team" + (char) ('A' + index) : "team" + index;
+  }
+
+  private String username(SplittableRandom random, long index) {
+    int cardinality = properties.getUsernameCardinality();
+    long suffix = cardinality > 0 ? random.nextInt(cardinality) : index;
+    return properties.getUsernamePrefix() + suffix;
+  }
+
+  private int age(SplittableRandom random, long index) {
+    int min = properties.getAgeMin();
+    int max = properties.getAgeMax();
+    AgeDistribution distribution = properties.getAgeDistribution();
+    if (distribution == AgeDistribution.UNIFORM) {
+      return random.nextInt(min, max + 1);
+    }
+    if (distribution == AgeDistribution.NORMAL) {
+      // Box-Muller
+      double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+      long age = Math.round(properties.getAgeMean() + gaussian * properties.getAgeStddev());
+      return (int) Math.max(min, Math.min(max, age));
+    }
+    return (int) (min + index % (max - min + 1));
+  }
+
+  // JDBC 로 직접 넣을 count 개의 id 를 넣기 전에 시퀀스에서 먼저 잡아 둔다. Hibernate 시퀀스(pooled-lo)는 nextval 값부터
+  // allocationSize 개를 쓰므로, increment 를 잠시 count 로 바꾼 뒤 nextval 한 번이면 [받은 값, 받은 값 + count) 를 아무도 쓰지 않는다.
+  // 그 사이 다른 nextval 이 끼어도 count 만큼 건너뛴 값을 받으므로 겹치지 않는다
+  private long reserveIds(String table, String idColumn, String sequence, long count) {
+    if (count <= 0) {
+      return 0;
+    }
+    Long increment = jdbcTemplate.queryForObject(
+        "select increment from information_schema.sequences where lower(sequence_name) = ?", Long.class, sequence);
+    long reserved;
+    jdbcTemplate.execute("alter sequence " + sequence + " increment by " + count);
+    try {
+      reserved = jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+    } finally {
+      jdbcTemplate.execute("alter sequence " + sequence + " increment by " + increment);
+    }
+
+    // 시퀀스를 거치지 않고 들어간 id 가 시퀀스보다 앞서 있으면 그 뒤부터 쓰고, 시퀀스도 바로 마지막 id + 1 로 민다
+    Long max = jdbcTemplate.queryForObject("select max(" + idColumn + ") from " + table, Long.class);
+    if (max == null || max < reserved) {
+      return reserved;
+    }
+    long first = max + 1;
+    jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (first + count));
+    return first;
+  }
+}
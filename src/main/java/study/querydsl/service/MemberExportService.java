@@ -0,0 +1,101 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.InvalidSearchRequestException;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberSearchCondition;
+
+// 회원 목록을 NDJSON / CSV 로 내려준다. 조회한 행을 바로 응답에 쓰기 때문에 힙 사용량은 테이블 크기와 무관
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+  private static final String CSV_HEADER = "memberId,username,age,teamId,teamName";
+
+  private final MemberJpaRepository memberJpaRepository;
+  private final ObjectMapper objectMapper;
+
+  @Value("${member.export.fetch-size:1000}")
+  private int fetchSize;
+
+  @Transactional(readOnly = true)
+  public long export(MemberSearchCondition condition, ExportFormat format, OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    if (format == ExportFormat.CSV) {
+      writer.write(CSV_HEADER);
+      writer.write('\n');
+    }
+
+    long count = 0;
+    try (Stream<MemberTeamDto> rows = memberJpaRepository.stream(condition, fetchSize)) {
+      Iterator<MemberTeamDto> it = rows.iterator();
+      while (it.hasNext()) {
+        MemberTeamDto row = it.next();
+        writer.write(format == ExportFormat.CSV ? toCsv(row) : objectMapper.writeValueAsString(row));
+        writer.write('\n');
+        // fetchSize 단위로 클라이언트에 밀어낸다
+        if (++count % fetchSize == 0) {
+          writer.flush();
+        }
+      }
+    }
+    writer.flush();
+    return count;
+  }
+
+  private String toCsv(MemberTeamDto row) {
+    return row.getMemberId() + ","
+        + csv(row.getUsername()) + ","
+        + row.getAge() + ","
+        + (row.getTeamId() == null ? "" : row.getTeamId()) + ","
+        + csv(row.getTeamName());
+  }
+
+  private String csv(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+      return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+    return value;
+  }
+
+  public enum ExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    ExportFormat(String contentType) {
+      this.contentType = contentType;
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+
+    // 모르는 형식은 NDJSON 으로 대신하지 않고 거절한다 (MemberController 가 400 으로 응답)
+    public static ExportFormat from(String value) {
+      for (ExportFormat format : values()) {
+        if (format.name().equalsIgnoreCase(value)) {
+          return format;
+        }
+      }
+      throw new InvalidSearchRequestException("지원하지 않는 export 형식입니다: " + value);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package study.querydsl.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// 테스트/부하용 데이터 생성 설정 (member.seed.*)
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "member.seed")
+public class MemberSeedProperties {
+
+  private boolean enabled = true;
+  private boolean async = false;      // true 면 컨텍스트가 뜬 뒤 백그라운드 스레드에서 생성
+  private long seed = 42L;            // 같은 seed 면 항상 같은 데이터
+
+  private int teams = 2;
+  private long members = 100;
+
+  private int batchSize = 1_000;      // JDBC batch 크기
+  private int chunkSize = 10_000;     // 커밋 단위
+
+  private String usernamePrefix = "member";
+  private int usernameCardinality = 0; // 0 이면 member0, member1 ... 모두 유일, 그 외엔 해당 개수 안에서 중복 허용
+
+  private AgeDistribution ageDistribution = AgeDistribution.SEQUENTIAL;
+  private int ageMin = 0;
+  private int ageMax = 99;
+  private double ageMean = 35;
+  private double ageStddev = 12;
+
+  public enum AgeDistribution {
+    SEQUENTIAL, // ageMin + (i % 범위)
+    UNIFORM,
+    NORMAL
+  }
+}
@@ -0,0 +1,218 @@
+package study.querydsl.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.ReplicaRoutingDataSource.Replica;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCondition;
+import study.querydsl.repository.ParallelQueryExecutor;
+
+// primary 는 테스트 설정의 H2(tcp), replica 는 메모리 H2 두 개
+// 조회 결과로 replica 를 확인할 수 있게 검색 결과 캐시는 끈다
+@SpringBootTest(properties = {
+    "member.datasource.routing-enabled=true",
+    "member.datasource.replicas[0].url=jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1",
+    "member.datasource.replicas[1].url=jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1",
+    "member.search.cache.enabled=false",
+    "member.search.count-cache.enabled=false"
+})
+class DataSourceRoutingTest {
+
+  @Autowired
+  EntityManager em;
+  @Autowired
+  PlatformTransactionManager transactionManager;
+  @Autowired
+  @Qualifier("primaryDataSource")
+  DataSource primaryDataSource;
+  @Autowired
+  @Qualifier("replicaDataSource")
+  DataSource replicaDataSource; // p6spy 로 감싸져 있다
+  @Autowired
+  @Qualifier("replicaDataSource")
+  ObjectProvider<DataSource> replicaDataSources;
+  @Autowired
+  MemberJpaRepository memberJpaRepository;
+  @Autowired
+  MemberRepository memberRepository;
+
+  @Test
+  public void readOnlyGoesToReplicas() {
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+
+    Set<String> databases = new HashSet<>();
+    for (int i = 0; i < 4; i++) {
+      databases.add(readOnly.execute(status -> database()));
+    }
+
+    assertThat(databases).containsExactlyInAnyOrder("REPLICA1", "REPLICA2"); // round-robin
+  }
+
+  // /v1 ~ /v3 가 쓰는 readOnly 리포지토리 메서드: replica 에만 있는 회원이 조회되면 replica 로 간 것
+  @Test
+  public void readOnlySearchesGoToReplicas() throws Exception {
+    copySchemaToReplicas();
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername("replicaOnly");
+    PageRequest pageable = PageRequest.of(0, 10);
+
+    for (int i = 0; i < 2; i++) { // 두 replica 모두
+      assertThat(memberJpaRepository.search(condition)).extracting("username").containsExactly("replicaOnly");
+      assertThat(memberRepository.searchPageSimple(condition, pageable).getTotalElements()).isEqualTo(1);
+      assertThat(memberRepository.searchPageComplex(condition, pageable).getContent())
+          .extracting(MemberTeamDto::getTeamName).containsExactly("replicaTeam");
+      assertThat(memberRepository.searchSlice(condition, pageable).getContent()).hasSize(1);
+    }
+  }
+
+  @Test
+  public void writeGoesToPrimary() {
+    String database = new TransactionTemplate(transactionManager).execute(status -> database());
+
+    assertThat(database).isEqualTo("QUERYDSL");
+  }
+
+  @Test
+  public void ejectUnhealthyReplica() throws Exception {
+    //given
+    DataSource down = pool("jdbc:h2:tcp://localhost:1/~/nowhere");
+    DataSource up = pool("jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1");
+    Replica broken = new Replica("broken", down);
+    ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+        List.of(broken, new Replica("ok", up)), primaryDataSource, 60_000);
+    try {
+      //when
+      for (int i = 0; i < 3; i++) {
+        try (Connection connection = routing.getConnection()) {
+          //then
+          assertThat(connection.getCatalog()).isEqualTo("REPLICA1");
+        }
+      }
+      assertThat(broken.isHealthy()).isFalse();
+
+      routing.checkHealth();
+      assertThat(broken.isHealthy()).isFalse(); // 여전히 죽어 있으면 빠진 상태 유지
+    } finally {
+      routing.destroy();
+    }
+  }
+
+  // 풀이 바빠서 커넥션을 못 얻은 replica 는 빼지 않고 다른 replica 로 넘어간다
+  @Test
+  public void keepBusyReplica() throws Exception {
+    //given
+    HikariDataSource busyPool = (HikariDataSource) pool("jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1");
+    busyPool.setMaximumPoolSize(1);
+    Replica busy = new Replica("busy", busyPool);
+    ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+        List.of(busy, new Replica("ok", pool("jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1"))), null, 60_000);
+    try (Connection held = busyPool.getConnection()) {
+      //when
+      for (int i = 0; i < 2; i++) {
+        try (Connection connection = routing.getConnection()) {
+          //then
+          assertThat(connection.getCatalog()).isEqualTo("REPLICA2");
+        }
+      }
+      assertThat(busy.isHealthy()).isTrue();
+    } finally {
+      routing.destroy();
+    }
+  }
+
+  @Test
+  public void fallbackToPrimaryWhenAllReplicasDown() throws Exception {
+    ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+        List.of(new Replica("broken", pool("jdbc:h2:tcp://localhost:1/~/nowhere"))), primaryDataSource, 60_000);
+    try (Connection connection = routing.getConnection()) {
+      assertThat(connection.getCatalog()).isEqualTo("QUERYDSL");
+    } finally {
+      routing.destroy();
+    }
+  }
+
+  @Test
+  public void credentialsArePassedToReplica() throws Exception {
+    DriverManagerDataSource replica = new DriverManagerDataSource("jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1");
+    ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+        List.of(new Replica("replica", replica)), null, 60_000);
+    try (Connection connection = routing.getConnection("sa", "")) {
+      assertThat(connection.getCatalog()).isEqualTo("REPLICA1");
+      assertThat(connection.getMetaData().getUserName()).isEqualToIgnoringCase("sa");
+    } finally {
+      routing.destroy();
+    }
+  }
+
+  // 병렬 count 는 readOnly 트랜잭션이라 replica 로 간다 -> primary 풀에 여유가 있어도 replica 풀이 바닥나면 순차 실행
+  @Test
+  public void parallelQueryChecksReplicaPools() throws Exception {
+    ParallelQueryExecutor executor = new ParallelQueryExecutor(true, 1, em, transactionManager,
+        primaryDataSource, replicaDataSources);
+    List<Connection> borrowed = new ArrayList<>();
+    try {
+      for (Replica replica : replicaDataSource.unwrap(ReplicaRoutingDataSource.class).getReplicas()) {
+        HikariDataSource pool = replica.getDataSource().unwrap(HikariDataSource.class);
+        for (int i = 0; i < pool.getMaximumPoolSize(); i++) {
+          borrowed.add(pool.getConnection());
+        }
+      }
+
+      assertThat(executor.trySubmit(factory -> 0L)).isNull();
+    } finally {
+      for (Connection connection : borrowed) {
+        connection.close();
+      }
+      executor.destroy();
+    }
+  }
+
+  private String database() {
+    return (String) em.createNativeQuery("select database()").getSingleResult();
+  }
+
+  // 메모리 replica 에 primary 스키마를 만들고 replica 에만 있는 회원을 넣는다
+  private void copySchemaToReplicas() throws Exception {
+    List<String> ddl = new JdbcTemplate(primaryDataSource).queryForList("script nodata", String.class).stream()
+        .filter(statement -> !statement.startsWith("--"))
+        .toList();
+    for (Replica replica : replicaDataSource.unwrap(ReplicaRoutingDataSource.class).getReplicas()) {
+      JdbcTemplate jdbc = new JdbcTemplate(replica.getDataSource());
+      jdbc.execute("drop all objects");
+      ddl.forEach(jdbc::execute);
+      jdbc.update("insert into team (team_id, name) values (1, 'replicaTeam')");
+      jdbc.update("insert into member (member_id, username, age, team_id, version) values (1, 'replicaOnly', 10, 1, 0)");
+    }
+  }
+
+  private static DataSource pool(String url) {
+    HikariDataSource pool = new HikariDataSource();
+    pool.setJdbcUrl(url);
+    pool.setUsername("sa");
+    pool.setPassword("");
+    pool.setConnectionTimeout(250);
+    pool.setInitializationFailTimeout(-1);
+    return pool;
+  }
+}
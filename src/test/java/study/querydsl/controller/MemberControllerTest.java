@@ -0,0 +1,76 @@
+package study.querydsl.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+  @Autowired
+  MockMvc mockMvc;
+  @Autowired
+  EntityManager em;
+
+  @Test
+  public void malformedCursorIsBadRequest() throws Exception {
+    mockMvc.perform(get("/v4/members").param("cursor", "not-a-cursor"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.detail").value("잘못된 커서 값입니다: not-a-cursor"));
+
+    mockMvc.perform(get("/v4/members").param("size", "3"))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(get("/v4/members").param("size", String.valueOf(Integer.MAX_VALUE)))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/v4/members").param("size", "1001"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void unknownExportFormatIsBadRequest() throws Exception {
+    mockMvc.perform(get("/members/export").param("format", "xml"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void invalidUsernameSearchIsBadRequest() throws Exception {
+    mockMvc.perform(get("/v3/members/username").param("contains", "mem").param("startsWith", "mem"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.detail").value("contains 와 startsWith 중 하나만 지정해야 합니다"));
+
+    mockMvc.perform(get("/v3/members/username").param("contains", "mem").param("limit", "0"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/v3/members/username").param("contains", "mem").param("limit", "1001"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/members/username-autocomplete").param("prefix", "mem").param("limit", "1001"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void csvQuotesCarriageReturn() throws Exception {
+    Team team = new Team("team\rA");
+    em.persist(team);
+    em.persist(new Member("member\r1", 10, team));
+    em.flush();
+
+    mockMvc.perform(get("/members/export").param("format", "CSV").param("teamName", "team\rA"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString(
+            "\"member\r1\",10," + team.getId() + ",\"team\rA\"\n")));
+  }
+}
@@ -0,0 +1,26 @@
+package study.querydsl.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlTelemetryControllerTest {
+
+  @Autowired
+  MockMvc mockMvc;
+
+  @Test
+  public void invalidSampleRateIsBadRequest() throws Exception {
+    mockMvc.perform(post("/stats/sql-telemetry").param("sampleRate", "1.5"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.detail").value("sampleRate 는 0 ~ 1 사이여야 합니다: 1.5"));
+  }
+}
@@ -0,0 +1,58 @@
+package study.querydsl.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 2차 캐시는 커밋된 데이터만 적재하므로 롤백 테스트(@Transactional) 대신 직접 커밋하고 지운다
+@SpringBootTest
+public class TeamCacheTest {
+  @PersistenceContext
+  EntityManager em;
+  @Autowired
+  EntityManagerFactory emf;
+  @Autowired
+  TransactionTemplate tx;
+
+  @AfterEach
+  public void cleanUp() {
+    tx.executeWithoutResult(status -> {
+      em.createQuery("delete from Member").executeUpdate();
+      em.createQuery("delete from Team").executeUpdate();
+    });
+    emf.getCache().evictAll();
+  }
+
+  @Test
+  public void teamSecondLevelCache() {
+    Long teamId = tx.execute(status -> {
+      Team teamA = new Team("teamA");
+      em.persist(teamA);
+      em.persist(new Member("member1", 10, teamA));
+      return teamA.getId();
+    });
+
+    CacheRegionStatistics stats = emf.unwrap(SessionFactory.class).getStatistics()
+        .getDomainDataRegionStatistics("team");
+    long hitBefore = stats.getHitCount();
+
+    tx.executeWithoutResult(status -> {
+      em.find(Team.class, teamId);
+      em.clear();
+      Member member = em.createQuery("select m from Member m where m.username = 'member1'", Member.class)
+          .getSingleResult();
+      member.getTeam().getName(); // 지연 로딩이 DB 가 아닌 캐시에서 해결
+    });
+
+    assertThat(stats.getHitCount()).isGreaterThan(hitBefore);
+  }
+}
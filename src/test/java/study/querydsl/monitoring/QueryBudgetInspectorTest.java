@@ -0,0 +1,61 @@
+package study.querydsl.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.monitoring.QueryBudgetProperties.Mode;
+import study.querydsl.repository.MemberJpaRepository;
+
+@SpringBootTest
+@Transactional
+class QueryBudgetInspectorTest {
+
+  @Autowired
+  EntityManager em;
+  @Autowired
+  MemberJpaRepository memberJpaRepository;
+
+  @Test
+  public void detectNPlusOne() throws Exception {
+    //given
+    Team team = new Team("teamA");
+    em.persist(team);
+    for (int i = 0; i < 10; i++) {
+      em.persist(new Member("member" + i, i, team));
+    }
+    em.flush();
+    em.clear();
+
+    //when
+    try (QueryScope scope = QueryCounter.open("n+1")) {
+      for (int i = 0; i < 10; i++) {
+        memberJpaRepository.findByUsername_Querydsl("member" + i); // 루프 안에서 회원마다 select
+      }
+      //then
+      assertThat(scope.getCount()).isEqualTo(10);
+      assertThat(scope.getRepeatedSelects(10)).hasSize(1);
+    }
+  }
+
+  @Test
+  public void failWhenRepeated() throws Exception {
+    QueryBudgetProperties properties = new QueryBudgetProperties();
+    properties.setMode(Mode.FAIL);
+    properties.setRepeatThreshold(3);
+    QueryBudgetInspector inspector = new QueryBudgetInspector(properties);
+
+    try (QueryScope scope = QueryCounter.open("unit")) {
+      inspector.inspect("select t1_0.name from team t1_0 where t1_0.team_id=?");
+      inspector.inspect("select t1_0.name from team t1_0 where t1_0.team_id=?");
+      assertThrows(QueryBudgetExceededException.class,
+          () -> inspector.inspect("select t1_0.name from team t1_0 where t1_0.team_id=?"));
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package study.querydsl.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.monitoring.SearchIndexAdvisor.QueryPlan;
+import study.querydsl.repository.MemberSearchCondition;
+
+@SpringBootTest
+@Transactional
+class SearchIndexAdvisorTest {
+
+  @Autowired
+  SearchIndexAdvisor advisor;
+  @Autowired
+  EntityManager em;
+
+  @Test
+  public void onlyUnfilteredSearchScansMember() {
+    //given
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    for (int i = 0; i < 100; i++) {
+      em.persist(new Member("member" + i, i, teamA));
+    }
+    em.flush();
+    MemberSearchCondition sample = new MemberSearchCondition();
+    sample.setUsername("member1");
+    sample.setTeamName("teamA");
+    sample.setAgeGoe(20);
+    sample.setAgeLoe(30);
+
+    //when
+    List<QueryPlan> plans = advisor.explain(sample);
+
+    //then
+    assertThat(plans).hasSize(34); // 16가지 조합 x (content, count) + findByUsername + findMemberJoinTeam
+    assertThat(plans).allSatisfy(plan -> assertThat(plan.plan()).doesNotStartWith("EXPLAIN 실패"));
+    // 조건이 하나도 없는 content 조회만 전체 스캔 (count 는 H2 가 행 수로 바로 답한다)
+    assertThat(plans)
+        .filteredOn(plan -> !plan.tableScans().isEmpty())
+        .extracting(QueryPlan::query)
+        .containsExactly("(none) content");
+  }
+
+  @Test
+  public void tableScans() {
+    String plan = """
+        SELECT "M1_0"."MEMBER_ID" FROM "PUBLIC"."MEMBER" "M1_0"
+            /* PUBLIC.MEMBER.tableScan */
+        LEFT OUTER JOIN "PUBLIC"."TEAM" "T1_0"
+            /* PUBLIC.PRIMARY_KEY_2: TEAM_ID = M1_0.TEAM_ID */
+        """;
+
+    assertThat(SearchIndexAdvisor.tableScans(plan)).containsExactly("PUBLIC.MEMBER");
+  }
+}
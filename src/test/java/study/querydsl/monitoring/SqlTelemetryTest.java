@@ -0,0 +1,106 @@
+package study.querydsl.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+@SpringBootTest
+@Transactional
+class SqlTelemetryTest {
+
+  @Autowired
+  SqlTelemetryProperties properties;
+  @Autowired
+  SqlTelemetryListener listener;
+  @Autowired
+  MemberJpaRepository memberJpaRepository;
+
+  @AfterEach
+  public void after() {
+    properties.setEnabled(false);
+    properties.setSampleRate(0.01);
+  }
+
+  @Test
+  public void recordSampledStatementWithValues() {
+    //given
+    properties.setEnabled(true);
+    properties.setSampleRate(1.0);
+    listener.flush();
+
+    //when
+    memberJpaRepository.findByUsername("telemetry-user");
+
+    //then
+    List<SqlSample> samples = new ArrayList<>();
+    listener.getBuffer().drain(samples::add);
+    assertThat(samples).anySatisfy(sample -> {
+      assertThat(sample.sql()).contains("'telemetry-user'");
+      assertThat(sample.elapsedNanos()).isPositive();
+    });
+  }
+
+  @Test
+  public void disabledAtRuntime() {
+    properties.setEnabled(false);
+    long before = listener.getBuffer().getWritten();
+
+    memberJpaRepository.save(new Member("member1", 10));
+    memberJpaRepository.findAll();
+
+    assertThat(listener.getBuffer().getWritten()).isEqualTo(before);
+  }
+
+  @Test
+  public void ringBufferDropsOldestWhenFull() {
+    SqlSampleBuffer buffer = new SqlSampleBuffer(4);
+    for (int i = 0; i < 10; i++) {
+      String sql = "select " + i;
+      buffer.add(sequence -> new SqlSample(sequence, 0, 1, 1, sql, null));
+    }
+
+    List<SqlSample> samples = new ArrayList<>();
+    buffer.drain(samples::add);
+
+    assertThat(samples).extracting(SqlSample::sql)
+        .containsExactly("select 6", "select 7", "select 8", "select 9");
+    assertThat(buffer.getDropped()).isEqualTo(6);
+  }
+
+  // 샘플을 만들다 실패하거나 쓰는 스레드가 멈춰도 그 뒤 샘플은 계속 읽힌다
+  @Test
+  public void drainPastFailedAndStalledSlots() {
+    SqlSampleBuffer buffer = new SqlSampleBuffer(8);
+    buffer.add(sequence -> new SqlSample(sequence, 0, 1, 1, "select 0", null));
+    assertThatThrownBy(() -> buffer.add(sequence -> {
+      throw new IllegalStateException("boom");
+    })).isInstanceOf(IllegalStateException.class);
+    buffer.add(sequence -> new SqlSample(sequence, 0, 1, 1, "select 2", null));
+
+    List<SqlSample> samples = new ArrayList<>();
+    buffer.drain(samples::add);
+    assertThat(samples).extracting(SqlSample::sql).containsExactly("select 0", "select 2");
+    assertThat(buffer.getDropped()).isEqualTo(1);
+
+    //순번(3)만 받고 아직 쓰지 않은 슬롯 뒤에 다른 샘플(4)이 써진 상태에서 drain
+    List<SqlSample> later = new ArrayList<>();
+    buffer.add(sequence -> {
+      buffer.add(next -> new SqlSample(next, 0, 1, 1, "select 4", null));
+      buffer.drain(later::add); // 한 번은 기다린다
+      assertThat(later).isEmpty();
+      buffer.drain(later::add); // 그래도 안 써졌으면 버리고 넘어간다
+      return new SqlSample(sequence, 0, 1, 1, "select 3", null);
+    });
+    assertThat(later).extracting(SqlSample::sql).containsExactly("select 4");
+    assertThat(buffer.getDropped()).isEqualTo(2);
+  }
+}
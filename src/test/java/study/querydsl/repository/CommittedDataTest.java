@@ -0,0 +1,48 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 커밋된 데이터만 보는 대상(메모리 인덱스, 캐시, 읽기 모델, 다른 커넥션의 쿼리)을 검증하는 테스트의 공통 부분.
+// @Transactional 롤백 테스트로는 그 대상이 변경을 보지 못하므로 tx 로 직접 커밋하고, 테스트가 끝나면 회원/팀을 지운다.
+// 지우는 벌크 delete 도 백그라운드 재구축을 예약하므로 다음 테스트가 지운 데이터를 보지 않도록 재구축이 끝날 때까지 기다린다
+abstract class CommittedDataTest {
+
+  private static final Duration REBUILD_TIMEOUT = Duration.ofSeconds(10);
+
+  @PersistenceContext
+  EntityManager em;
+  @Autowired
+  TransactionTemplate tx;
+
+  @Autowired
+  UsernameNgramIndex usernameIndex;
+  @Autowired
+  UsernameBloomFilter usernameBloomFilter;
+  @Autowired
+  MemberSearchProjection searchProjection;
+  @Autowired
+  MemberColumnarSnapshot columnarSnapshot;
+
+  @AfterEach
+  public void deleteCommittedData() throws Exception {
+    tx.executeWithoutResult(status -> {
+      em.createQuery("delete from Member").executeUpdate();
+      em.createQuery("delete from Team").executeUpdate();
+    });
+    awaitRebuilds();
+  }
+
+  void awaitRebuilds() throws InterruptedException {
+    assertThat(usernameIndex.awaitRebuild(REBUILD_TIMEOUT)).isTrue();
+    assertThat(usernameBloomFilter.awaitRebuild(REBUILD_TIMEOUT)).isTrue();
+    assertThat(searchProjection.awaitRebuild(REBUILD_TIMEOUT)).isTrue();
+    assertThat(columnarSnapshot.awaitRebuild(REBUILD_TIMEOUT)).isTrue();
+  }
+}
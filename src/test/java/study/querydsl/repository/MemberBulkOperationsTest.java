@@ -0,0 +1,162 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.entity.BulkJobCheckpoint;
+import study.querydsl.entity.BulkJobCheckpoint.Operation;
+import study.querydsl.entity.Member;
+
+@SpringBootTest(properties = "member.bulk.chunk-size=3")
+class MemberBulkOperationsTest extends CommittedDataTest {
+
+  @Autowired
+  MemberBulkOperations bulkOperations;
+  @Autowired
+  MemberJpaRepository memberJpaRepository;
+  @Autowired
+  MemberRepository memberRepository;
+
+  @AfterEach
+  public void deleteCheckpoints() {
+    tx.executeWithoutResult(status -> em.createQuery("delete from BulkJobCheckpoint").executeUpdate());
+  }
+
+  @Test
+  public void updateInChunks() throws Exception {
+    //given
+    saveMembers(10);
+
+    //when
+    long updated = bulkOperations.update("rename-young", member.age.lt(5),
+        update -> update.set(member.username, "비회원"));
+
+    //then
+    assertThat(updated).isEqualTo(5);
+    assertThat(memberJpaRepository.findByUsername("비회원")).hasSize(5);
+    BulkJobCheckpoint checkpoint = tx.execute(status -> em.find(BulkJobCheckpoint.class, "rename-young"));
+    assertThat(checkpoint.isCompleted()).isTrue();
+  }
+
+  @Test
+  public void resumeFromCheckpoint() throws Exception {
+    //given 중간(6번째 회원)까지 처리하고 죽은 작업
+    List<Member> members = saveMembers(10);
+    long lastCommittedId = members.get(5).getId();
+    long maxId = members.get(9).getId();
+    tx.executeWithoutResult(status -> em.persist(new BulkJobCheckpoint("delete-all", Operation.DELETE, bulkOperations.deleteStatement(null), lastCommittedId, maxId)));
+
+    //when
+    long deleted = bulkOperations.delete("delete-all", null);
+
+    //then 나머지 4명만 삭제
+    assertThat(deleted).isEqualTo(4);
+    assertThat(memberJpaRepository.findAll()).hasSize(6);
+  }
+
+  // 같은 jobName 이라도 작업 종류나 조건이 다르면 이전 구간에 이어서 실행하지 않는다
+  @Test
+  public void rejectResumeOfDifferentJob() throws Exception {
+    //given
+    List<Member> members = saveMembers(10);
+    long lastCommittedId = members.get(5).getId();
+    long maxId = members.get(9).getId();
+    String young = bulkOperations.deleteStatement(member.age.lt(5));
+    tx.executeWithoutResult(status -> em.persist(
+        new BulkJobCheckpoint("cleanup", Operation.DELETE, young, lastCommittedId, maxId)));
+
+    //when then
+    assertThatThrownBy(() -> bulkOperations.update("cleanup", member.age.lt(5),
+        update -> update.set(member.username, "비회원")))
+        .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> bulkOperations.delete("cleanup", member.age.goe(5)))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(memberJpaRepository.findAll()).hasSize(10);
+
+    assertThat(bulkOperations.delete("cleanup", member.age.lt(5))).isZero(); // 남은 구간(7~10번째)에 5살 미만은 없다
+  }
+
+  // 조건이 같아도 SET 값이 다르면 다른 작업
+  @Test
+  public void rejectResumeWithDifferentSet() throws Exception {
+    //given
+    List<Member> members = saveMembers(10);
+    long lastCommittedId = members.get(5).getId();
+    long maxId = members.get(9).getId();
+    String rename = bulkOperations.updateStatement(member.age.goe(0), update -> update.set(member.username, "비회원"));
+    tx.executeWithoutResult(status -> em.persist(
+        new BulkJobCheckpoint("rename", Operation.UPDATE, rename, lastCommittedId, maxId)));
+
+    //when then
+    assertThatThrownBy(() -> bulkOperations.update("rename", member.age.goe(0),
+        update -> update.set(member.username, "탈퇴")))
+        .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> bulkOperations.update("rename", member.age.goe(0),
+        update -> update.set(member.username, "비회원").set(member.age, 0)))
+        .isInstanceOf(IllegalStateException.class);
+
+    assertThat(bulkOperations.update("rename", member.age.goe(0),
+        update -> update.set(member.username, "비회원"))).isEqualTo(4); // 같은 문장이면 7~10번째만
+  }
+
+  // 청크(3건)마다 커밋되지만 메모리 인덱스 재구축은 작업이 끝난 뒤 한 번
+  @Test
+  public void rebuildOncePerJob() throws Exception {
+    //given
+    saveMembers(10);
+    assertThat(usernameIndex.awaitRebuild(Duration.ofSeconds(10))).isTrue();
+    long rebuilds = usernameIndex.rebuildRuns();
+
+    //when
+    bulkOperations.update("rename-all", member.age.goe(0), update -> update.set(member.username, "renamed"));
+
+    //then
+    assertThat(usernameIndex.awaitRebuild(Duration.ofSeconds(10))).isTrue();
+    assertThat(usernameIndex.rebuildRuns()).isEqualTo(rebuilds + 1);
+    assertThat(usernameIndex.find(UsernameNgramIndex.Match.STARTS_WITH, "renamed")).hasSize(10);
+  }
+
+  // 청크의 id 구간만 같은 트랜잭션에서 읽기 모델에 반영하므로 전체 재구축은 예약되지 않는다
+  @Test
+  public void refreshReadModelPerChunk() throws Exception {
+    //given
+    saveMembers(10);
+    assertThat(searchProjection.awaitRebuild(Duration.ofSeconds(10))).isTrue();
+    long rebuilds = searchProjection.rebuildRuns();
+
+    //when
+    bulkOperations.update("rename-old", member.age.goe(5), update -> update.set(member.username, "renamed"));
+    bulkOperations.delete("delete-young", member.age.lt(2));
+
+    //then
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername("renamed");
+    assertThat(memberRepository.searchReadModel(condition, PageRequest.of(0, 20)).getContent())
+        .extracting("age").containsExactly(5, 6, 7, 8, 9);
+    assertThat(memberRepository.searchReadModel(new MemberSearchCondition(), PageRequest.of(0, 20))
+        .getTotalElements()).isEqualTo(8);
+    assertThat(searchProjection.awaitRebuild(Duration.ofSeconds(10))).isTrue();
+    assertThat(searchProjection.rebuildRuns()).isEqualTo(rebuilds);
+  }
+
+  private List<Member> saveMembers(int count) {
+    return tx.execute(status -> {
+      List<Member> members = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        Member member = new Member("member" + i, i);
+        em.persist(member);
+        members.add(member);
+      }
+      return members;
+    });
+  }
+}
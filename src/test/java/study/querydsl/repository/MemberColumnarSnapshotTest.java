@@ -0,0 +1,190 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.EntityChangeType;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.repository.MemberColumnarSnapshot.Source;
+
+@SpringBootTest(properties = "member.search.columnar.enabled=true")
+class MemberColumnarSnapshotTest extends CommittedDataTest {
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+  @Autowired
+  MemberRepository memberRepository;
+  @Autowired
+  MemberColumnarSnapshot snapshot;
+
+  Long teamAId;
+  Long teamBId;
+  Long member1Id;
+
+  @BeforeEach
+  public void before() {
+    tx.executeWithoutResult(status -> {
+      Team teamA = new Team("teamA");
+      Team teamB = new Team("teamB");
+      em.persist(teamA);
+      em.persist(teamB);
+      Member member1 = new Member("member1", 10, teamA);
+      em.persist(member1);
+      em.persist(new Member("member2", 20, teamA));
+      em.persist(new Member("member3", 30, teamB));
+      em.persist(new Member("member4", 40, teamB));
+      em.persist(new Member("member5", 50));
+      teamAId = teamA.getId();
+      teamBId = teamB.getId();
+      member1Id = member1.getId();
+    });
+  }
+
+  @Test
+  public void sameResultAsDatabase() {
+    assertThat(snapshot.isReady()).isTrue();
+    for (MemberSearchCondition condition : new MemberSearchCondition[]{
+        condition(null, null, null, null),
+        condition("member3", null, null, null),
+        condition(null, "teamA", null, null),
+        condition(null, "teamB", 35, null),
+        condition(null, null, 15, 45),
+        condition("member2", "teamA", 10, 20),
+        condition(null, "teamC", null, null)}) {
+      assertThat(memberRepository.search(condition, Source.SNAPSHOT))
+          .containsExactlyInAnyOrderElementsOf(memberRepository.search(condition, Source.DATABASE));
+      assertThat(memberRepository.searchCount(condition, Source.SNAPSHOT))
+          .isEqualTo(memberRepository.searchCount(condition, Source.DATABASE));
+    }
+  }
+
+  @Test
+  public void followCommittedChanges() {
+    tx.executeWithoutResult(status -> {
+      Member member1 = em.find(Member.class, member1Id);
+      member1.setAge(31);
+      member1.changeTeam(em.find(Team.class, teamBId));
+      em.find(Team.class, teamAId).setName("teamC");
+      em.persist(new Member("member6", 60, em.find(Team.class, teamAId)));
+    });
+
+    assertThat(snapshot.search(condition(null, "teamB", 31, null)))
+        .extracting("username").containsExactly("member1", "member4");
+    assertThat(snapshot.search(condition(null, "teamC", null, null)))
+        .extracting("username").containsExactly("member2", "member6");
+    assertThat(snapshot.count(condition(null, "teamA", null, null))).isZero();
+
+    tx.executeWithoutResult(status -> em.remove(em.find(Member.class, member1Id)));
+    assertThat(snapshot.count(condition(null, null, null, null))).isEqualTo(5);
+  }
+
+  // 재구축은 백그라운드에서 하고, 끝날 때까지는 DB 로 조회한다
+  @Test
+  public void rebuildAfterBulkUpdate() throws Exception {
+    tx.executeWithoutResult(status -> queryFactory
+        .update(member)
+        .set(member.age, 99)
+        .where(member.age.goe(40))
+        .execute());
+
+    assertThat(snapshot.isReady()).isFalse();
+    assertThat(memberRepository.searchCount(condition(null, null, 99, null), Source.SNAPSHOT)).isEqualTo(2);
+    assertThat(snapshot.awaitRebuild(Duration.ofSeconds(10))).isTrue();
+    assertThat(snapshot.isReady()).isTrue();
+    assertThat(snapshot.search(condition(null, null, 99, null)))
+        .extracting("username").containsExactly("member4", "member5");
+  }
+
+  // 벌크 update 실행 뒤 시작한 재구축이 커밋 전에 끝난 경우. 커밋 뒤에는 다음 재구축 전까지 DB 로 조회해야 한다
+  @Test
+  public void bulkUpdateCommittedAfterRebuild() throws Exception {
+    tx.executeWithoutResult(status -> {
+      queryFactory
+          .update(member)
+          .set(member.age, 77)
+          .where(member.age.goe(40))
+          .execute();
+      CompletableFuture.runAsync(snapshot::rebuild).join();
+    });
+
+    assertThat(memberRepository.searchCount(condition(null, null, 77, null), Source.SNAPSHOT)).isEqualTo(2);
+    assertThat(snapshot.awaitRebuild(Duration.ofSeconds(10))).isTrue();
+    assertThat(snapshot.isReady()).isTrue();
+    assertThat(snapshot.count(condition(null, null, 77, null))).isEqualTo(2);
+  }
+
+  // username 은 공유 바이트 배열에 있다. 이름 변경 / 길이가 2바이트로 저장되는 긴 이름 / 한글도 DB 와 같게 찾는다
+  @Test
+  public void usernamesInArena() {
+    String longName = "member-" + "x".repeat(200);
+    tx.executeWithoutResult(status -> {
+      em.find(Member.class, member1Id).setUsername("회원1");
+      em.persist(new Member(longName, 60));
+      em.persist(new Member("member2", 70)); // 같은 이름
+    });
+
+    for (MemberSearchCondition condition : new MemberSearchCondition[]{
+        condition("회원1", null, null, null),
+        condition("member1", null, null, null),
+        condition(longName, null, null, null),
+        condition("member2", null, null, null)}) {
+      assertThat(snapshot.search(condition))
+          .containsExactlyInAnyOrderElementsOf(memberRepository.search(condition, Source.DATABASE));
+    }
+
+    snapshot.rebuild();
+    assertThat(snapshot.search(condition("member2", null, null, null))).hasSize(2);
+    Map<String, Object> stats = snapshot.stats();
+    long rows = ((Number) stats.get("rows")).longValue();
+    assertThat(((Number) stats.get("columnBytes")).longValue()).isGreaterThan(rows * 20);
+    assertThat(((Number) stats.get("usernameBytes")).longValue()).isPositive();
+  }
+
+  @Test
+  public void databaseInWriteTransaction() {
+    long count = tx.execute(status -> {
+      em.persist(new Member("member6", 60));
+      em.flush();
+      return memberRepository.searchCount(condition(null, null, 60, null), Source.SNAPSHOT);
+    });
+
+    assertThat(count).isEqualTo(1);
+    assertThat(snapshot.count(condition(null, null, 60, null))).isEqualTo(1); // 커밋 후 반영
+  }
+
+  // 커밋 후 콜백은 커밋 순서대로 오지 않을 수 있다. 이미 반영된 것보다 낮은 version 의 변경은 버린다
+  @Test
+  public void ignoreOlderVersion() {
+    Long member2Id = tx.execute(status -> em.createQuery("select m.id from Member m where m.username = 'member2'", Long.class)
+        .getSingleResult());
+    tx.executeWithoutResult(status -> em.find(Member.class, member1Id).setAge(11)); // version 1
+    tx.executeWithoutResult(status -> em.remove(em.find(Member.class, member2Id)));
+
+    //when: 그보다 먼저 커밋된 변경(version 0)의 콜백이 늦게 도착 (다른 리스너는 건드리지 않게 직접 호출)
+    snapshot.onMemberChanged(new MemberChangedEvent(EntityChangeType.UPDATE, Member.detached(member1Id, "member1", 10, null, 0L)));
+    snapshot.onMemberChanged(new MemberChangedEvent(EntityChangeType.UPDATE, Member.detached(member2Id, "member2", 20, null, 0L)));
+
+    //then
+    assertThat(snapshot.search(condition("member1", null, null, null))).extracting("age").containsExactly(11);
+    assertThat(snapshot.search(condition("member2", null, null, null))).isEmpty();
+  }
+
+  private MemberSearchCondition condition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername(username);
+    condition.setTeamName(teamName);
+    condition.setAgeGoe(ageGoe);
+    condition.setAgeLoe(ageLoe);
+    return condition;
+  }
+}
@@ -5,7 +5,9 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -67,6 +69,52 @@ class MemberJpaRepositoryTest {
     //then
     assertThat(result).extracting("username").containsExactly("member4");
   }
+
+  @Test
+  public void saveAllTest() throws Exception {
+    //given
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    Member existing = new Member("existing", 50, teamA);
+    em.persist(existing);
+    em.flush();
+    em.clear();
+    Member loaded = em.find(Member.class, existing.getId()); // saveAll 전에 조회해 둔 관계없는 엔티티
+    List<Member> members = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      members.add(new Member("member" + i, i, loaded.getTeam()));
+    }
+    //when
+    memberJpaRepository.saveAll(members);
+    //then
+    assertThat(memberJpaRepository.findAll()).hasSize(11);
+    assertThat(em.contains(members.get(0))).isFalse(); // flush 후 저장한 엔티티만 준영속
+    assertThat(em.contains(loaded)).isTrue();
+    loaded.setAge(51);
+    em.flush();
+    em.clear();
+    assertThat(em.find(Member.class, loaded.getId()).getAge()).isEqualTo(51); // 변경 감지도 그대로
+  }
+
+  @Test
+  public void streamTest() throws Exception {
+    //given
+    Team teamA = new Team("teamA");
+    em.persist(teamA);
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 20, teamA));
+    em.persist(new Member("member3", 30));
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeGoe(20);
+    //when
+    List<MemberTeamDto> result;
+    try (Stream<MemberTeamDto> stream = memberJpaRepository.stream(condition, 1)) {
+      result = stream.toList();
+    }
+    //then
+    assertThat(result).extracting("username").containsExactly("member2", "member3");
+  }
   
   
 
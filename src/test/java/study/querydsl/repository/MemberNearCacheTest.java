@@ -0,0 +1,157 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+class MemberNearCacheTest extends CommittedDataTest {
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+  @Autowired
+  MemberJpaRepository memberJpaRepository;
+  @Autowired
+  MemberNearCache nearCache;
+
+  Long id;
+
+  @BeforeEach
+  public void before() {
+    id = tx.execute(status -> {
+      Team teamA = new Team("teamA");
+      em.persist(teamA);
+      Member member1 = new Member("near-member1", 10, teamA);
+      em.persist(member1);
+      return member1.getId();
+    });
+  }
+
+  @Test
+  public void hitReturnsDetachedSnapshot() {
+    long hits = nearCache.stats().hitCount();
+
+    Member first = memberJpaRepository.findById(id).orElseThrow();
+    Member second = memberJpaRepository.findById(id).orElseThrow();
+
+    assertThat(nearCache.stats().hitCount()).isEqualTo(hits + 1);
+    assertThat(second).isNotSameAs(first);
+    assertThat(second.getUsername()).isEqualTo("near-member1");
+    assertThat(second.getVersion()).isEqualTo(first.getVersion());
+    assertThat(second.getTeam().getId()).isEqualTo(first.getTeam().getId());
+  }
+
+  @Test
+  public void invalidateByVersionOnWrite() {
+    Long before = memberJpaRepository.findById(id).orElseThrow().getVersion();
+
+    tx.executeWithoutResult(status -> em.find(Member.class, id).setUsername("near-renamed"));
+
+    Member found = memberJpaRepository.findById(id).orElseThrow();
+    assertThat(found.getUsername()).isEqualTo("near-renamed");
+    assertThat(found.getVersion()).isEqualTo(before + 1);
+  }
+
+  // 이전 version 을 커밋 전에 읽은 조회가 커밋이 끝난 뒤에 캐시에 넣으려는 경우
+  @Test
+  public void rejectSnapshotLoadedBeforeCommit() throws Exception {
+    CountDownLatch loaded = new CountDownLatch(1);
+    CountDownLatch committed = new CountDownLatch(1);
+    CompletableFuture<Member> reader = CompletableFuture.supplyAsync(() -> nearCache.get(id, () -> {
+      Member stale = queryFactory.selectFrom(member).where(member.id.eq(id)).fetchOne();
+      loaded.countDown();
+      await(committed);
+      return stale;
+    }));
+    await(loaded);
+
+    tx.executeWithoutResult(status -> em.find(Member.class, id).setUsername("near-renamed"));
+    committed.countDown();
+
+    assertThat(reader.get(10, TimeUnit.SECONDS).getUsername()).isEqualTo("near-member1");
+    assertThat(memberJpaRepository.findById(id).orElseThrow().getUsername()).isEqualTo("near-renamed");
+    long hits = nearCache.stats().hitCount();
+    assertThat(memberJpaRepository.findById(id).orElseThrow().getUsername()).isEqualTo("near-renamed");
+    assertThat(nearCache.stats().hitCount()).isEqualTo(hits + 1);
+  }
+
+  @Test
+  public void dropTombstoneOnRollback() {
+    memberJpaRepository.findById(id);
+    tx.executeWithoutResult(status -> {
+      em.find(Member.class, id).setUsername("near-rolled-back");
+      em.flush();
+      status.setRollbackOnly();
+    });
+
+    memberJpaRepository.findById(id);
+    long hits = nearCache.stats().hitCount();
+    assertThat(memberJpaRepository.findById(id).orElseThrow().getUsername()).isEqualTo("near-member1");
+    assertThat(nearCache.stats().hitCount()).isEqualTo(hits + 1);
+  }
+
+  @Test
+  public void invalidateOnBulkUpdate() {
+    memberJpaRepository.findById(id);
+
+    tx.executeWithoutResult(status -> queryFactory
+        .update(member)
+        .set(member.age, 11)
+        .where(member.id.eq(id))
+        .execute());
+
+    assertThat(memberJpaRepository.findById(id).orElseThrow().getAge()).isEqualTo(11);
+  }
+
+  // 벌크 update 는 version 을 올리지 않는다. 커밋 전에 읽은 조회가 커밋 뒤 invalidateAll 이 지나간 다음 넣으려는 경우
+  @Test
+  public void rejectSnapshotLoadedBeforeBulkCommit() throws Exception {
+    CountDownLatch loaded = new CountDownLatch(1);
+    CountDownLatch committed = new CountDownLatch(1);
+    CompletableFuture<Member> reader = CompletableFuture.supplyAsync(() -> nearCache.get(id, () -> {
+      Member stale = queryFactory.selectFrom(member).where(member.id.eq(id)).fetchOne();
+      loaded.countDown();
+      await(committed);
+      return stale;
+    }));
+    await(loaded);
+
+    tx.executeWithoutResult(status -> queryFactory
+        .update(member)
+        .set(member.age, 11)
+        .where(member.id.eq(id))
+        .execute());
+    committed.countDown();
+
+    assertThat(reader.get(10, TimeUnit.SECONDS).getAge()).isEqualTo(10);
+    assertThat(memberJpaRepository.findById(id).orElseThrow().getAge()).isEqualTo(11);
+    assertThat(memberJpaRepository.findById(id).orElseThrow().getAge()).isEqualTo(11);
+  }
+
+  @Test
+  public void bypassInWriteTransaction() {
+    memberJpaRepository.findById(id);
+
+    boolean managed = tx.execute(status -> em.contains(memberJpaRepository.findById(id).orElseThrow()));
+
+    assertThat(managed).isTrue();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MemberQueryMetricsTest {
+
+  SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  MemberQueryMetrics metrics = new MemberQueryMetrics(registry);
+
+  @Test
+  public void tagsQueryAndConditionShape() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername("member1");
+    condition.setAgeGoe(20);
+
+    assertThat(metrics.record("search", condition, () -> List.of("member1"))).containsExactly("member1");
+    condition.setUsername("member2"); // 값이 달라도 같은 shape
+    metrics.record("search", condition, List::of);
+    metrics.record("search", new MemberSearchCondition(), List::of);
+    metrics.run("save", () -> {
+    });
+
+    assertThat(timer("search", "username+ageGoe").count()).isEqualTo(2);
+    assertThat(timer("search", "none").count()).isEqualTo(1);
+    assertThat(timer("save", "none").count()).isEqualTo(1);
+    assertThat(registry.find("member.query").timers()).hasSize(3);
+  }
+
+  @Test
+  public void shapeListsSetFieldsInFixedOrder() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeLoe(40);
+    condition.setTeamName("teamA");
+    condition.setUsername(" "); // 공백만 있으면 조건으로 보지 않는다
+
+    assertThat(MemberQueryMetrics.shape(condition)).isEqualTo("teamName+ageLoe");
+    assertThat(MemberQueryMetrics.shape(new MemberSearchCondition())).isEqualTo("none");
+  }
+
+  private Timer timer(String query, String shape) {
+    return registry.get("member.query").tag("query", query).tag("shape", shape).timer();
+  }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+// 병렬 count 는 다른 커넥션에서 실행되므로 커밋된 데이터로 검증한다.
+// 결과 캐시를 끄고, 같은 조건을 병렬(트랜잭션 밖) / 순차(쓰기 트랜잭션 안)로 각각 조회해 비교한다
+@SpringBootTest(properties = {
+    "member.search.parallel.enabled=true",
+    "member.search.cache.enabled=false",
+    "member.search.count-cache.enabled=false"
+})
+class MemberRepositoryParallelTest extends CommittedDataTest {
+
+  @Autowired
+  MemberRepository memberRepository;
+  @Autowired
+  ParallelQueryExecutor parallelQueries;
+
+  @BeforeEach
+  public void before() {
+    tx.executeWithoutResult(status -> {
+      Team teamA = new Team("teamA");
+      Team teamB = new Team("teamB");
+      em.persist(teamA);
+      em.persist(teamB);
+      for (int i = 0; i < 30; i++) {
+        em.persist(new Member("member" + i, i, i % 3 == 0 ? null : i % 3 == 1 ? teamA : teamB));
+      }
+    });
+  }
+
+  @Test
+  public void parallelPageEqualsSequential() {
+    assertThat(parallelQueries.isEnabled()).isTrue();
+
+    MemberSearchCondition all = new MemberSearchCondition();
+    MemberSearchCondition teamA = new MemberSearchCondition();
+    teamA.setTeamName("teamA");
+    MemberSearchCondition range = new MemberSearchCondition();
+    range.setAgeGoe(5);
+    range.setAgeLoe(24);
+    MemberSearchCondition none = new MemberSearchCondition();
+    none.setUsername("nobody");
+
+    for (MemberSearchCondition condition : List.of(all, teamA, range, none)) {
+      for (PageRequest pageable : List.of(PageRequest.of(0, 4), PageRequest.of(2, 4), PageRequest.of(0, 50))) {
+        Page<MemberTeamDto> parallel = memberRepository.searchPageComplex(condition, pageable);
+        Page<MemberTeamDto> sequential = tx.execute(status -> memberRepository.searchPageComplex(condition, pageable));
+
+        assertThat(parallel.getTotalElements()).isEqualTo(sequential.getTotalElements());
+        assertThat(parallel.getContent())
+            .usingRecursiveFieldByFieldElementComparator()
+            .containsExactlyElementsOf(sequential.getContent());
+      }
+    }
+    assertThat(memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 4))
+        .getTotalElements()).isEqualTo(30);
+  }
+}
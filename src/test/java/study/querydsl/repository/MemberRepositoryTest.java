@@ -1,6 +1,7 @@
 package study.querydsl.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.junit.jupiter.api.Assertions.*;
 
 import jakarta.persistence.EntityManager;
@@ -11,7 +12,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CursorPage;
+import study.querydsl.dto.MemberFacets;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
@@ -94,6 +98,87 @@ class MemberRepositoryTest {
     assertThat(result).extracting("username").containsExactly("member1","member2","member3");
   }
 
+  @Test
+  public void searchFacets() throws Exception {
+    //given
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    em.persist(new Member("member1", 10, teamA));
+    em.persist(new Member("member2", 15, teamA));
+    em.persist(new Member("member3", 31, teamB));
+    em.persist(new Member("member4", 45, teamB));
+    em.persist(new Member("member5", 19));
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeLoe(40);
+    //when
+    MemberFacets facets = memberRepository.searchFacets(condition);
+
+    //then
+    assertThat(facets.getTeams()).containsExactly(entry("teamA", 2L), entry("teamB", 1L));
+    assertEquals(1L, facets.getNoTeam());
+    assertThat(facets.getAgeDecades()).containsExactly(entry(10, 3L), entry(30, 1L));
+  }
+
+  @Test
+  public void searchSlice() throws Exception {
+    //given
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    Member member1 = new Member("member1", 10, teamA);
+    Member member2 = new Member("member2", 20, teamA);
+    Member member3 = new Member("member3", 30, teamB);
+    Member member4 = new Member("member4", 40, teamB);
+    em.persist(member1);
+    em.persist(member2);
+    em.persist(member3);
+    em.persist(member4);
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    //when
+    Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 3));
+    Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(1, 3));
+
+    //then
+    assertTrue(first.hasNext());
+    assertThat(first.getContent()).extracting("username").containsExactly("member1","member2","member3");
+    assertFalse(last.hasNext());
+    assertThat(last.getContent()).extracting("username").containsExactly("member4");
+  }
+
+  @Test
+  public void searchByCursor() throws Exception {
+    //given
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    Member member1 = new Member("member1", 10, teamA);
+    Member member2 = new Member("member2", 20, teamA);
+    Member member3 = new Member("member3", 30, teamB);
+    Member member4 = new Member("member4", 40, teamB);
+    em.persist(member1);
+    em.persist(member2);
+    em.persist(member3);
+    em.persist(member4);
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    //when
+    CursorPage<MemberTeamDto> first = memberRepository.searchByCursor(condition, null, 3);
+    CursorPage<MemberTeamDto> second = memberRepository.searchByCursor(condition, first.getNextCursor(), 3);
+
+    //then
+    assertTrue(first.isHasNext());
+    assertThat(first.getContent()).extracting("username").containsExactly("member1","member2","member3");
+    assertFalse(second.isHasNext());
+    assertNull(second.getNextCursor());
+    assertThat(second.getContent()).extracting("username").containsExactly("member4");
+  }
+
   @Test
   public void querydslPredicateExecutorTest() throws Exception {
     //given
@@ -0,0 +1,94 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.BulkDmlStatementInspector;
+
+@SpringBootTest
+class MemberSearchCacheTest {
+
+  @Autowired
+  MemberSearchCache memberSearchCache;
+  @Autowired
+  ApplicationEventPublisher publisher;
+
+  @Test
+  public void cacheAndInvalidate() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername(" member1 ");
+    MemberSearchCondition sameCondition = new MemberSearchCondition();
+    sameCondition.setUsername("member1");
+    sameCondition.setTeamName("");
+
+    memberSearchCache.get("search", condition, null, loads::incrementAndGet);
+    memberSearchCache.get("search", sameCondition, null, loads::incrementAndGet); // 정규화 후 같은 키
+    assertThat(loads.get()).isEqualTo(1);
+
+    publisher.publishEvent(new BulkChangedEvent("member", "update member m1_0 set username=? where m1_0.age<?"));
+    memberSearchCache.get("search", condition, null, loads::incrementAndGet);
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void skipLoadOverlappingChange() throws Exception {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername("overlap");
+    BulkChangedEvent change = new BulkChangedEvent("member", "update member m1_0 set username=? where m1_0.age<?");
+
+    //when: 조회하는 도중에 변경이 커밋됨 (조회 결과는 변경 전 데이터)
+    memberSearchCache.get("search", condition, null, () -> {
+      publisher.publishEvent(change);
+      return List.of("stale");
+    });
+    //then
+    AtomicInteger loads = new AtomicInteger();
+    memberSearchCache.get("search", condition, null, () -> List.of(loads.incrementAndGet()));
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void returnCopies() throws Exception {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setUsername("copy");
+    Supplier<List<MemberTeamDto>> loader = () -> List.of(new MemberTeamDto(1L, "copy", 10, null, null));
+
+    List<MemberTeamDto> first = memberSearchCache.get("search", condition, null, loader);
+    List<MemberTeamDto> second = memberSearchCache.get("search", condition, null, loader);
+    second.get(0).setUsername("changed");
+
+    List<MemberTeamDto> third = memberSearchCache.get("search", condition, null, loader);
+    assertThat(third).extracting("username").containsExactly("copy");
+    assertThat(third).isNotSameAs(second);
+    assertThatThrownBy(() -> third.add(first.get(0))).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void detectBulkDml() throws Exception {
+    List<Object> events = new ArrayList<>();
+    BulkDmlStatementInspector inspector = new BulkDmlStatementInspector(events::add);
+
+    inspector.inspect("/* update for study.querydsl.entity.Member */update member set age=?,team_id=?,username=?,version=? where member_id=? and version=?");
+    inspector.inspect("delete from member where member_id=? and version=?");
+    inspector.inspect("update team set name=? where team_id=?");
+    inspector.inspect("select m1_0.member_id from member m1_0");
+    assertThat(events).isEmpty();
+
+    inspector.inspect("/* update Member member1 set member1.username = ?1 */ update member m1_0 set username=? where m1_0.age<?");
+    inspector.inspect("delete from member m1_0 where m1_0.age>?");
+    inspector.inspect("update member set age=? where member_id=?"); // Member 는 @Version 이라 version 조건이 없으면 벌크
+    assertThat(events).hasSize(3);
+    assertThat(((BulkChangedEvent) events.get(1)).isDelete()).isTrue();
+  }
+}
@@ -0,0 +1,125 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static study.querydsl.entity.QMember.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.monitoring.SqlCaptureListener;
+import study.querydsl.monitoring.SqlCaptureListener.CapturedStatement;
+
+@SpringBootTest
+class MemberSearchProjectionTest extends CommittedDataTest {
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+  @Autowired
+  MemberRepository memberRepository;
+  @Autowired
+  MemberSearchProjection projection;
+  @Autowired
+  SqlCaptureListener sqlCapture;
+
+  Long teamAId;
+  Long teamBId;
+  Long member1Id;
+
+  @BeforeEach
+  public void before() {
+    tx.executeWithoutResult(status -> {
+      Team teamA = new Team("teamA");
+      Team teamB = new Team("teamB");
+      em.persist(teamA);
+      em.persist(teamB);
+      Member member1 = new Member("member1", 10, teamA);
+      em.persist(member1);
+      em.persist(new Member("member2", 20, teamA));
+      em.persist(new Member("member3", 30, teamB));
+      em.persist(new Member("member4", 40));
+      teamAId = teamA.getId();
+      teamBId = teamB.getId();
+      member1Id = member1.getId();
+    });
+  }
+
+  @Test
+  public void followEntityChanges() {
+    assertThat(search("teamA").getContent())
+        .extracting("username", "teamId")
+        .containsExactly(tuple("member1", teamAId), tuple("member2", teamAId));
+
+    tx.executeWithoutResult(status -> {
+      em.find(Member.class, member1Id).changeTeam(em.find(Team.class, teamBId));
+      em.find(Team.class, teamBId).setName("teamC");
+    });
+    assertThat(search("teamA").getContent()).extracting("username").containsExactly("member2");
+    assertThat(search("teamC").getContent()).extracting("username").containsExactly("member1", "member3");
+
+    tx.executeWithoutResult(status -> em.remove(em.find(Member.class, member1Id)));
+    assertThat(search("teamC").getContent()).extracting("username").containsExactly("member3");
+    assertThat(search(null).getTotalElements()).isEqualTo(3);
+  }
+
+  @Test
+  public void rollbackWithSource() {
+    tx.executeWithoutResult(status -> {
+      em.persist(new Member("member5", 50, em.find(Team.class, teamAId)));
+      em.flush();
+      status.setRollbackOnly();
+    });
+
+    assertThat(search("teamA").getContent()).extracting("username").containsExactly("member1", "member2");
+  }
+
+  @Test
+  public void rebuildAfterBulkUpdate() throws Exception {
+    tx.executeWithoutResult(status -> queryFactory
+        .update(member)
+        .set(member.age, member.age.add(1))
+        .where(member.age.goe(20))
+        .execute());
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setAgeGoe(21);
+    assertThat(projection.awaitRebuild(Duration.ofSeconds(10))).isTrue();
+    Page<MemberTeamDto> result = memberRepository.searchReadModel(condition, PageRequest.of(0, 10));
+    assertThat(result.getContent()).extracting("age").containsExactly(21, 31, 41);
+    assertThat(projection.rebuild()).isEqualTo(4);
+  }
+
+  // 새 회원 행은 트랜잭션마다 모아서 JDBC batch 한 번으로 쓰고, 같은 트랜잭션의 update 보다 먼저 쓴다
+  @Test
+  public void batchPersistInserts() {
+    List<CapturedStatement> statements = sqlCapture.capture(() -> tx.executeWithoutResult(status -> {
+      Team teamA = em.find(Team.class, teamAId);
+      Member member5 = new Member("member5", 50, teamA);
+      em.persist(member5);
+      for (int i = 6; i <= 9; i++) {
+        em.persist(new Member("member" + i, i * 10, teamA));
+      }
+      em.flush();
+      member5.setUsername("member5-renamed");
+    }));
+
+    assertThat(statements).filteredOn(statement -> statement.sql().startsWith("insert into member_search")).hasSize(1);
+    assertThat(search("teamA").getContent()).extracting("username")
+        .containsExactly("member1", "member2", "member5-renamed", "member6", "member7", "member8", "member9");
+  }
+
+  private Page<MemberTeamDto> search(String teamName) {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName(teamName);
+    return memberRepository.searchReadModel(condition, PageRequest.of(0, 10));
+  }
+}
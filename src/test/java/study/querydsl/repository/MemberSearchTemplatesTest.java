@@ -0,0 +1,75 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@SpringBootTest
+@Transactional
+class MemberSearchTemplatesTest {
+
+  @Autowired
+  EntityManager em;
+  @Autowired
+  MemberSearchTemplates templates;
+  @Autowired
+  MemberJpaRepository memberJpaRepository;
+
+  @BeforeEach
+  public void before() {
+    Team teamA = new Team("teamA");
+    Team teamB = new Team("teamB");
+    em.persist(teamA);
+    em.persist(teamB);
+    for (int i = 0; i < 20; i++) {
+      em.persist(new Member("member" + (i % 4), i * 5, i % 2 == 0 ? teamA : teamB));
+    }
+    em.persist(new Member("member0", 30)); // 팀 없음
+    em.flush();
+    em.clear();
+  }
+
+  // 16가지 조합 모두 Querydsl 로 매번 만든 쿼리(searchByBuilder)와 같은 결과
+  @Test
+  public void sameResultAsQuerydslForEveryShape() {
+    for (int shape = 0; shape < 16; shape++) {
+      MemberSearchCondition condition = new MemberSearchCondition();
+      condition.setUsername((shape & 1) != 0 ? "member0" : null);
+      condition.setTeamName((shape & 2) != 0 ? "teamA" : null);
+      condition.setAgeGoe((shape & 4) != 0 ? 20 : null);
+      condition.setAgeLoe((shape & 8) != 0 ? 70 : null);
+
+      List<MemberTeamDto> expected = memberJpaRepository.searchByBuilder(condition);
+      List<MemberTeamDto> result = templates.fetch(condition);
+
+      assertThat(result).usingRecursiveFieldByFieldElementComparator()
+          .containsExactlyInAnyOrderElementsOf(expected);
+      assertThat(templates.count(condition)).isEqualTo(expected.size());
+    }
+  }
+
+  @Test
+  public void bindParametersOnly() {
+    MemberSearchCondition first = new MemberSearchCondition();
+    first.setUsername("member1");
+    first.setAgeGoe(10);
+    MemberSearchCondition second = new MemberSearchCondition();
+    second.setUsername(" member2 ");
+    second.setAgeGoe(40);
+
+    assertThat(templates.jpql(first)).isSameAs(templates.jpql(second)); // 같은 조합 -> 같은 JPQL 인스턴스
+    assertThat(templates.fetch(second, PageRequest.of(0, 2)))
+        .hasSize(2)
+        .allSatisfy(dto -> assertThat(dto.getUsername()).isEqualTo("member2"));
+  }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+import jakarta.persistence.EntityManager;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@SpringBootTest
+class ParallelQueryExecutorTest {
+
+  @Autowired
+  EntityManager em;
+  @Autowired
+  PlatformTransactionManager transactionManager;
+  @Autowired
+  DataSource dataSource;
+  @Autowired
+  @Qualifier("replicaDataSource")
+  ObjectProvider<DataSource> replicaDataSource; // 라우팅이 꺼져 있으므로 비어 있다
+
+  @Test
+  public void fallbackWhenSaturated() throws Exception {
+    ParallelQueryExecutor executor = new ParallelQueryExecutor(true, 1, em, transactionManager, dataSource, replicaDataSource);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      CompletableFuture<Long> first = executor.trySubmit(factory -> {
+        await(release);
+        return factory.select(member.count()).from(member).fetchOne();
+      });
+      CompletableFuture<Long> second = executor.trySubmit(factory -> 0L);
+
+      assertThat(first).isNotNull();
+      assertThat(second).isNull(); // 스레드가 모두 사용 중 -> 순차 실행으로 대체
+      release.countDown();
+      assertThat(ParallelQueryExecutor.join(first)).isNotNull();
+    } finally {
+      release.countDown();
+      executor.destroy();
+    }
+  }
+
+  @Test
+  public void runsInReadOnlyTransaction() {
+    ParallelQueryExecutor executor = new ParallelQueryExecutor(true, 1, em, transactionManager, dataSource, replicaDataSource);
+    try {
+      CompletableFuture<Boolean> readOnly = executor.trySubmit(factory -> {
+        factory.select(member.count()).from(member).fetchOne();
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+      });
+
+      assertThat(ParallelQueryExecutor.join(readOnly)).isTrue();
+    } finally {
+      executor.destroy();
+    }
+  }
+
+  private void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
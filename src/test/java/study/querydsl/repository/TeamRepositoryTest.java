@@ -0,0 +1,98 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamWithMembersDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.monitoring.QueryCounter;
+import study.querydsl.monitoring.QueryScope;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+  @Autowired
+  TeamRepository teamRepository;
+
+  @Autowired
+  MemberJpaRepository memberJpaRepository;
+
+  @Autowired
+  EntityManager em;
+
+  @Test
+  public void findTeamsWithMembers() throws Exception {
+    //given
+    persistTeams(0, 5);
+
+    //when
+    try (QueryScope scope = QueryCounter.open("teams page")) {
+      Page<TeamWithMembersDto> result = teamRepository.findTeamsWithMembers(PageRequest.of(1, 2));
+
+      //then id 페이지 1번 + fetch join 1번 + count 1번
+      assertThat(result.getTotalElements()).isEqualTo(5);
+      assertThat(result.getContent()).extracting("name").containsExactly("team2", "team3");
+      assertThat(result.getContent()).allSatisfy(team -> assertThat(team.getMembers()).hasSize(2));
+      assertThat(scope.getCount()).isEqualTo(3);
+    }
+  }
+
+  @Test
+  public void findTeamsWithMembers_queryCountIsConstant() throws Exception {
+    //given
+    persistTeams(0, 5);
+    int fewTeams = countTeamQueries(5);
+
+    // default_batch_fetch_size(100) 를 넘겨야 배치 로딩이었다면 쿼리 수가 달라진다
+    persistTeams(5, 250);
+    int manyTeams = countTeamQueries(250);
+
+    //then 팀 5개든 250개든 팀 id 페이징 1번 + members fetch join 1번 (첫 페이지에 다 들어오므로 count 는 생략)
+    assertThat(fewTeams).isEqualTo(2);
+    assertThat(manyTeams).isEqualTo(fewTeams);
+  }
+
+  @Test
+  public void memberTeam_batchFetch() throws Exception {
+    //given
+    persistTeams(0, 30);
+
+    //when
+    try (QueryScope scope = QueryCounter.open("members")) {
+      List<Member> members = memberJpaRepository.findAll();
+      members.forEach(member -> member.getTeam().getName());
+      //then 회원 1번 + 팀 프록시 배치 1번
+      assertThat(members).hasSize(60);
+      assertThat(scope.getCount()).isEqualTo(2);
+    }
+  }
+
+  private int countTeamQueries(int expectedTeams) {
+    try (QueryScope scope = QueryCounter.open("teams")) {
+      Page<TeamWithMembersDto> teams = teamRepository.findTeamsWithMembers(PageRequest.of(0, 500));
+      assertThat(teams.getContent()).hasSize(expectedTeams);
+      assertThat(teams.getContent()).allSatisfy(team -> assertThat(team.getMembers()).hasSize(2));
+      return scope.getCount();
+    }
+  }
+
+  private void persistTeams(int from, int to) {
+    for (int i = from; i < to; i++) {
+      Team team = new Team("team" + i);
+      em.persist(team);
+      em.persist(new Member("member" + i + "_1", 10, team));
+      em.persist(new Member("member" + i + "_2", 20, team));
+    }
+    em.flush();
+    em.clear();
+  }
+}
@@ -0,0 +1,122 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.entity.Member;
+
+@SpringBootTest
+class UsernameBloomFilterTest extends CommittedDataTest {
+
+  @Autowired
+  JPAQueryFactory queryFactory;
+  @Autowired
+  UsernameBloomFilter bloomFilter;
+  @Autowired
+  MemberRepository memberRepository;
+  @Autowired
+  MeterRegistry registry;
+
+  @BeforeEach
+  public void before() {
+    tx.executeWithoutResult(status -> em.persist(new Member("bloom-alice", 10)));
+  }
+
+  @Test
+  public void skipDefiniteMiss() {
+    double skippedBefore = skipped();
+
+    assertThat(memberRepository.findByUsername("bloom-alice")).hasSize(1);
+    assertThat(memberRepository.findByUsername("bloom-nobody")).isEmpty();
+
+    assertThat(bloomFilter.mightContain("bloom-nobody")).isFalse();
+    assertThat(skipped()).isEqualTo(skippedBefore + 1);
+  }
+
+  @Test
+  public void followPersistAndRename() {
+    Long id = tx.execute(status -> {
+      Member bob = new Member("bloom-bob", 20);
+      em.persist(bob);
+      return bob.getId();
+    });
+    assertThat(memberRepository.findByUsername("bloom-bob")).hasSize(1);
+
+    tx.executeWithoutResult(status -> em.find(Member.class, id).setUsername("bloom-carol"));
+    assertThat(memberRepository.findByUsername("bloom-carol")).hasSize(1);
+  }
+
+  @Test
+  public void writeTransactionSeesUnflushedMember() {
+    int found = tx.execute(status -> {
+      em.persist(new Member("bloom-dave", 30));
+      return memberRepository.findByUsername("bloom-dave").size();
+    });
+
+    assertThat(found).isEqualTo(1);
+  }
+
+  @Test
+  public void rebuildAfterBulkUpdate() throws Exception {
+    tx.executeWithoutResult(status -> queryFactory
+        .update(member)
+        .set(member.username, "bloom-erin")
+        .where(member.username.eq("bloom-alice"))
+        .execute());
+
+    assertThat(bloomFilter.isReady()).isFalse();
+    assertThat(memberRepository.findByUsername("bloom-erin")).hasSize(1);
+    assertThat(bloomFilter.awaitRebuild(Duration.ofSeconds(10))).isTrue();
+    assertThat(bloomFilter.isReady()).isTrue();
+    assertThat(bloomFilter.mightContain("bloom-erin")).isTrue();
+    assertThat(memberRepository.findByUsername("bloom-erin")).hasSize(1);
+  }
+
+  // flush 는 재구축 전, 커밋은 재구축이 username 을 다 읽은 뒤 (다른 커넥션이라 재구축 쿼리에는 안 보인다)
+  @Test
+  public void keepNameCommittedDuringRebuild() {
+    tx.executeWithoutResult(status -> {
+      em.persist(new Member("bloom-frank", 40));
+      em.flush();
+      CompletableFuture.runAsync(bloomFilter::rebuild).join();
+      assertThat(bloomFilter.mightContain("bloom-frank")).isTrue();
+    });
+    assertThat(bloomFilter.mightContain("bloom-frank")).isTrue();
+    assertThat(memberRepository.findByUsername("bloom-frank")).hasSize(1);
+
+    // 다음 재구축 중에 커밋이 끝난 경우: 이제 재구축 쿼리가 읽는다
+    bloomFilter.rebuild();
+    assertThat(bloomFilter.mightContain("bloom-frank")).isTrue();
+  }
+
+  // 벌크 update 실행 뒤 시작한 재구축이 커밋 전에 끝난 경우 (재구축 쿼리에는 바뀐 이름이 안 보인다).
+  // 커밋 뒤에는 다음 재구축 전까지 필터를 쓰지 않아야 바뀐 이름을 거짓 음성으로 건너뛰지 않는다
+  @Test
+  public void bulkUpdateCommittedAfterRebuild() throws Exception {
+    tx.executeWithoutResult(status -> {
+      queryFactory
+          .update(member)
+          .set(member.username, "bloom-grace")
+          .where(member.username.eq("bloom-alice"))
+          .execute();
+      CompletableFuture.runAsync(bloomFilter::rebuild).join();
+    });
+
+    assertThat(memberRepository.findByUsername("bloom-grace")).hasSize(1);
+    assertThat(bloomFilter.awaitRebuild(Duration.ofSeconds(10))).isTrue();
+    assertThat(bloomFilter.isReady()).isTrue();
+    assertThat(bloomFilter.mightContain("bloom-grace")).isTrue();
+  }
+
+  private double skipped() {
+    return registry.get("member.username.bloom").tag("result", "skip").counter().count();
+  }
+}
@@ -0,0 +1,138 @@
+package study.querydsl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.UsernameNgramIndex.Match;
+
+@SpringBootTest
+class UsernameNgramIndexTest extends CommittedDataTest {
+
+  @Autowired
+  UsernameNgramIndex index;
+  @Autowired
+  MemberRepository memberRepository;
+  @Autowired
+  JPAQueryFactory queryFactory;
+
+  Long aliceId;
+
+  @BeforeEach
+  public void before() {
+    aliceId = tx.execute(status -> {
+      Team teamA = new Team("teamA");
+      Team teamB = new Team("teamB");
+      em.persist(teamA);
+      em.persist(teamB);
+      Member alice = new Member("ngram-Alice", 10, teamA);
+      em.persist(alice);
+      em.persist(new Member("ngram-alina", 20, teamB));
+      em.persist(new Member("ngram-bob", 30, teamA));
+      return alice.getId();
+    });
+  }
+
+  @Test
+  public void containsAndStartsWith() {
+    assertThat(index.find(Match.CONTAINS, "ALI")).hasSize(2); // 대소문자 무시
+    assertThat(index.find(Match.CONTAINS, "ice")).containsExactly(aliceId);
+    assertThat(index.find(Match.CONTAINS, "ob")).hasSize(1);  // 두 글자는 전체 스캔
+    assertThat(index.find(Match.STARTS_WITH, "ngram-b")).hasSize(1);
+    assertThat(index.find(Match.STARTS_WITH, "gram")).isEmpty();
+  }
+
+  @Test
+  public void intersectWithDbPredicates() {
+    MemberSearchCondition condition = new MemberSearchCondition();
+    condition.setTeamName("teamA");
+
+    List<MemberTeamDto> result = memberRepository.searchByUsername(Match.CONTAINS, "ali", condition, 10);
+
+    assertThat(result).extracting("username").containsExactly("ngram-Alice");
+  }
+
+  @Test
+  public void followCommittedChanges() {
+    tx.executeWithoutResult(status -> em.find(Member.class, aliceId).setUsername("ngram-carol"));
+    assertThat(index.find(Match.CONTAINS, "alice")).isEmpty();
+    assertThat(index.find(Match.CONTAINS, "carol")).containsExactly(aliceId);
+
+    tx.executeWithoutResult(status -> em.remove(em.find(Member.class, aliceId)));
+    assertThat(index.find(Match.CONTAINS, "carol")).isEmpty();
+  }
+
+  @Test
+  public void ignoreRolledBackChanges() {
+    tx.executeWithoutResult(status -> {
+      em.persist(new Member("ngram-dave", 40));
+      em.flush();
+      status.setRollbackOnly();
+    });
+
+    assertThat(index.find(Match.CONTAINS, "dave")).isEmpty();
+  }
+
+  @Test
+  public void autocomplete() {
+    assertThat(memberRepository.autocompleteUsername("ngram-al", 10))
+        .containsExactly("ngram-alice", "ngram-alina");
+    assertThat(memberRepository.autocompleteUsername("ngram-", 1)).containsExactly("ngram-alice");
+  }
+
+  @Test
+  public void rebuild() {
+    index.rebuild();
+
+    assertThat(index.find(Match.STARTS_WITH, "ngram-")).hasSize(3);
+  }
+
+  @Test
+  public void rebuildAfterBulkUpdate() throws Exception {
+    tx.executeWithoutResult(status -> queryFactory
+        .update(member)
+        .set(member.username, "ngram-erin")
+        .where(member.id.eq(aliceId))
+        .execute());
+
+    // 재구축 전이면 DB like 로, 재구축 후면 인덱스로 찾는다. 어느 쪽이든 이전 이름으로 찾히면 안 된다
+    assertThat(memberRepository.searchByUsername(Match.CONTAINS, "erin", new MemberSearchCondition(), 10))
+        .extracting("username").containsExactly("ngram-erin");
+    assertThat(memberRepository.searchByUsername(Match.CONTAINS, "alice", new MemberSearchCondition(), 10)).isEmpty();
+
+    assertThat(index.awaitRebuild(Duration.ofSeconds(10))).isTrue();
+    assertThat(index.isReady()).isTrue();
+    assertThat(index.find(Match.CONTAINS, "erin")).containsExactly(aliceId);
+  }
+
+  // 벌크 update 실행 뒤 시작한 재구축이 커밋 전에 끝난 경우 (다른 커넥션이라 바뀐 이름을 못 읽는다).
+  // 커밋 뒤에는 재구축 전까지 인덱스를 쓰지 않아야 바뀐 이름이 빈 결과로 나오지 않는다
+  @Test
+  public void bulkUpdateCommittedAfterRebuild() throws Exception {
+    tx.executeWithoutResult(status -> {
+      queryFactory
+          .update(member)
+          .set(member.username, "ngram-frank")
+          .where(member.id.eq(aliceId))
+          .execute();
+      CompletableFuture.runAsync(index::rebuild).join();
+      assertThat(index.find(Match.CONTAINS, "frank")).isEmpty();
+    });
+
+    assertThat(memberRepository.searchByUsername(Match.CONTAINS, "frank", new MemberSearchCondition(), 10))
+        .extracting("username").containsExactly("ngram-frank");
+    assertThat(index.awaitRebuild(Duration.ofSeconds(10))).isTrue();
+    assertThat(index.isReady()).isTrue();
+    assertThat(index.find(Match.CONTAINS, "frank")).containsExactly(aliceId);
+  }
+}